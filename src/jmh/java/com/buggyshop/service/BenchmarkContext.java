@@ -0,0 +1,45 @@
+package com.buggyshop.service;
+
+import com.buggyshop.BuggyShopApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Boots the application against a private in-memory H2 database for one benchmark trial.
+ * DataInitializer seeds the usual demo data; benchmarks add what they need on top.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProperties) {
+        // Passed as command-line arguments so they take precedence over application.yml
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() +
+                        ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                // SET statement_timeout is PostgreSQL syntax
+                "buggyshop.datasource.oltp.statement-timeout=0",
+                "buggyshop.datasource.analytics.statement-timeout=0",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "logging.level.com.buggyshop=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "buggyshop.scheduler.enabled=false",
+                "excepthub.enabled=false"));
+        properties.addAll(List.of(extraProperties));
+
+        return new SpringApplicationBuilder(BuggyShopApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+}
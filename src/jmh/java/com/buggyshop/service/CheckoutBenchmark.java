@@ -0,0 +1,150 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.OrderRequest;
+import com.buggyshop.dto.ProductRequest;
+import com.buggyshop.entity.Cart;
+import com.buggyshop.entity.CartItem;
+import com.buggyshop.entity.Product;
+import com.buggyshop.repository.CartRepository;
+import com.buggyshop.repository.ProductRepository;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.createOrder for a cart of {@code lines} distinct products, end to end on H2.
+ *
+ * JDBC round trips are counted on the datasource-proxy chain (a batch counts once). Trial
+ * setup places one order first and fails the run if it took more than
+ * {@link #MAX_ROUND_TRIPS} round trips, so a regression back to row-at-a-time inserts or
+ * deletes shows up as a failed benchmark rather than a slower number.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckoutBenchmark {
+
+    /**
+     * User, cart (with lines and products) and address lookups, inventory lock and update, one
+     * order insert, one batched line insert, one batched cart-line delete, plus the occasional
+     * sequence call; independent of the line count. Row-at-a-time writes took 67 for 20 lines.
+     */
+    private static final int MAX_ROUND_TRIPS = 10;
+
+    private static final long USER_ID = 1L;
+    private static final long ADDRESS_ID = 1L;
+
+    @Param({"20"})
+    private int lines;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private CartRepository cartRepository;
+    private ProductRepository productRepository;
+    private final List<Long> productIds = new ArrayList<>();
+    private final RoundTripCounter roundTrips = new RoundTripCounter();
+    private Long cartId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        orderService = context.getBean(OrderService.class);
+        cartRepository = context.getBean(CartRepository.class);
+        productRepository = context.getBean(ProductRepository.class);
+        // The primary DataSource is the routing front; the accounting proxy sits on each pool
+        context.getBean("oltpDataSource", ProxyDataSource.class)
+                .getProxyConfig().getQueryListener().addListener(roundTrips);
+
+        ProductService productService = context.getBean(ProductService.class);
+        for (int i = 0; i < lines; i++) {
+            productIds.add(productService.createProduct(ProductRequest.builder()
+                    .name("Checkout bench product " + i)
+                    .price(BigDecimal.valueOf(1999 + i, 2))
+                    .sku("BENCH-" + i)
+                    .categoryId(1L)
+                    .initialStock(1_000_000_000)
+                    .build()).getId());
+        }
+
+        newCart();
+        long placed = placeOrder();
+        if (placed > MAX_ROUND_TRIPS) {
+            throw new IllegalStateException(String.format(
+                    "Checkout of %d lines took %d JDBC round trips, budget is %d", lines, placed, MAX_ROUND_TRIPS));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newCart() {
+        Cart cart = Cart.builder().sessionId(UUID.randomUUID().toString()).build();
+        for (Long productId : productIds) {
+            Product product = productRepository.getReferenceById(productId);
+            cart.getItems().add(CartItem.builder().cart(cart).product(product).quantity(1).build());
+        }
+        cartId = cartRepository.save(cart).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long createOrder() {
+        return placeOrder();
+    }
+
+    private long placeOrder() {
+        roundTrips.start();
+        try {
+            orderService.createOrder(OrderRequest.builder()
+                    .userId(USER_ID)
+                    .cartId(cartId)
+                    .shippingAddressId(ADDRESS_ID)
+                    .build());
+        } finally {
+            roundTrips.stop();
+        }
+        return roundTrips.count;
+    }
+
+    /**
+     * Counts statement executions on the benchmark thread while started.
+     */
+    private static final class RoundTripCounter implements QueryExecutionListener {
+        private volatile Thread owner;
+        private long count;
+
+        void start() {
+            count = 0;
+            owner = Thread.currentThread();
+        }
+
+        void stop() {
+            owner = null;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (owner == Thread.currentThread()) {
+                count++;
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Cart;
+import com.buggyshop.entity.CartItem;
+import com.buggyshop.entity.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing path of order creation: cart total plus coupon discount, on {@link Money} long
+ * cents (OrderService) against the previous BigDecimal arithmetic (bigDecimal* benchmarks,
+ * kept here as the baseline). Run with -prof gc to compare allocation per operation.
+ * Pure CPU; no Spring context or database.
+ *
+ * <p>Last recorded run ({@code mvn -Pbenchmark exec:exec -Djmh.args="PricingBenchmark -prof gc"},
+ * JMH 1.37, JDK 21.0.1, one vCPU of a 2.1 GHz Xeon); time in ns/op, allocation is
+ * gc.alloc.rate.norm in B/op:
+ * <pre>
+ * operation            cartSize   Money ns/op   B/op   BigDecimal ns/op   B/op
+ * total                       1          14.0      0               32.4     40
+ * total                      10         111.0      0              253.1    400
+ * total                     100         999.0      0             3159.6   4000
+ * percentage discount         1           3.3      0               32.2     40
+ * percentage discount        10           4.0      0               35.0     40
+ * percentage discount       100           5.1      0               35.0     40
+ * fixed discount              1           2.8      0                0.9      0
+ * fixed discount             10           2.9      0                1.0      0
+ * fixed discount            100           2.9      0                1.7      0
+ * </pre>
+ * The BigDecimal total allocates 40 B per line item, and Money allocates nothing. Both fixed
+ * discounts allocate nothing. They differ by about 2 ns because the Money one calls through
+ * OrderService and reads the coupon record, while the baseline only returns its argument.
+ * The error on small-cart totals was wide (±19 ns
+ * Money at 1 item, ±373 ns BigDecimal at 10 items); the 100-item numbers were stable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PricingBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int cartSize;
+
+    private OrderService orderService;
+    private Cart cart;
+    private long total;
+    private BigDecimal bigDecimalTotal;
+    private CouponRedemptionService.CouponTerms percentageCoupon;
+    private CouponRedemptionService.CouponTerms fixedCoupon;
+    private BigDecimal percentageDiscount;
+    private BigDecimal fixedDiscount;
+
+    @Setup
+    public void setUp() {
+        orderService = new OrderService(null, null, null, null, null, null, null, null, null, null);
+
+        Random random = new Random(42);
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < cartSize; i++) {
+            Product product = Product.builder()
+                    .id((long) i)
+                    .price(BigDecimal.valueOf(100 + random.nextInt(99_900), 2))
+                    .build();
+            items.add(CartItem.builder().product(product).quantity(1 + random.nextInt(5)).build());
+        }
+        cart = Cart.builder().items(items).build();
+        total = orderService.calculateTotal(cart);
+        bigDecimalTotal = bigDecimalTotal(cart);
+
+        percentageCoupon = new CouponRedemptionService.CouponTerms(1L, "PCT15", 1500, true, null, null, 0);
+        fixedCoupon = new CouponRedemptionService.CouponTerms(2L, "FIX10", 1000, false, null, null, 0);
+        percentageDiscount = new BigDecimal("15.00");
+        fixedDiscount = new BigDecimal("10.00");
+
+        if (Money.toBigDecimal(total).compareTo(bigDecimalTotal) != 0
+                || Money.toBigDecimal(orderService.calculateDiscount(total, percentageCoupon))
+                        .compareTo(bigDecimalDiscount(bigDecimalTotal, percentageDiscount, true)) != 0) {
+            throw new IllegalStateException("Money and BigDecimal pricing disagree");
+        }
+    }
+
+    @Benchmark
+    public long calculateTotal() {
+        return orderService.calculateTotal(cart);
+    }
+
+    @Benchmark
+    public long calculatePercentageDiscount() {
+        return orderService.calculateDiscount(total, percentageCoupon);
+    }
+
+    @Benchmark
+    public long calculateFixedDiscount() {
+        return orderService.calculateDiscount(total, fixedCoupon);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCalculateTotal() {
+        return bigDecimalTotal(cart);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCalculatePercentageDiscount() {
+        return bigDecimalDiscount(bigDecimalTotal, percentageDiscount, true);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalCalculateFixedDiscount() {
+        return bigDecimalDiscount(bigDecimalTotal, fixedDiscount, false);
+    }
+
+    private static BigDecimal bigDecimalTotal(Cart cart) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartItem item : cart.getItems()) {
+            BigDecimal itemTotal = item.getProduct().getPrice()
+                    .multiply(BigDecimal.valueOf(item.getQuantity()));
+            total = total.add(itemTotal);
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal bigDecimalDiscount(BigDecimal total, BigDecimal discount, boolean percentage) {
+        if (percentage) {
+            return total.multiply(discount)
+                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+        } else {
+            return discount;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.ProductResponse;
+import com.buggyshop.entity.Product;
+import com.buggyshop.repository.ProductRepository;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService.mapToResponse on a loaded product, including its rating stats lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMappingBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        // Call the target directly: mapToResponse is package-private and not advised
+        productService = AopTestUtils.getTargetObject(context.getBean(ProductService.class));
+
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        product = new TransactionTemplate(context.getBean(PlatformTransactionManager.class))
+                .execute(status -> {
+                    Product loaded = productRepository.findById(1L).orElseThrow();
+                    Hibernate.initialize(loaded.getCategory());
+                    return loaded;
+                });
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductResponse mapToResponse() {
+        return productService.mapToResponse(product);
+    }
+}
@@ -0,0 +1,90 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Category;
+import com.buggyshop.entity.Product;
+import com.buggyshop.repository.CategoryRepository;
+import com.buggyshop.repository.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description search over a generated catalog: the full-scan analytics search against
+ * the in-memory inverted index.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "premium", "quality", "professional", "wireless", "ergonomic", "compact", "durable",
+            "portable", "classic", "modern", "lightweight", "waterproof", "smart", "digital",
+            "stainless", "vintage", "organic", "heavy", "duty", "edition"};
+
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    @Param({"premium"})
+    private String keyword;
+
+    private ConfigurableApplicationContext context;
+    private AnalyticsService analyticsService;
+    private ProductSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        analyticsService = context.getBean(AnalyticsService.class);
+        searchIndex = context.getBean(ProductSearchIndex.class);
+
+        Category category = context.getBean(CategoryRepository.class).findAll().get(0);
+        Random random = new Random(42);
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int i = 0; i < catalogSize; i++) {
+            products.add(Product.builder()
+                    .name(words(random, 3))
+                    .description(words(random, 12))
+                    .price(BigDecimal.valueOf(100 + random.nextInt(99_900), 2))
+                    .sku("GEN-" + i)
+                    .category(category)
+                    .build());
+        }
+        context.getBean(ProductRepository.class).saveAll(products);
+        searchIndex.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> searchByDescriptionScan() {
+        return analyticsService.searchProductsByDescription(keyword);
+    }
+
+    @Benchmark
+    public ProductSearchIndex.SearchHits searchIndex() {
+        return searchIndex.search(keyword, 0, 20);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
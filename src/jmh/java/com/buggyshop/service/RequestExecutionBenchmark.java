@@ -0,0 +1,98 @@
+package com.buggyshop.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A burst of {@code requests} concurrent requests, each blocking for {@code blockMs} on a
+ * slow dependency (as the payment gateway does) and then running one query on the
+ * 5-connection pool. Compares Tomcat's default 200 platform worker threads with one virtual
+ * thread per request, with and without the DB admission gate. The pool's connection-timeout
+ * is cut to 1s so that ungated overload shows up quickly; requests that fail to get a
+ * connection are counted in "failures".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@State(Scope.Benchmark)
+public class RequestExecutionBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"true", "false"})
+    private boolean admissionGate;
+
+    @Param({"2000"})
+    private int requests;
+
+    @Param({"20"})
+    private int blockMs;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private ExecutorService executor;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcomes {
+        public long failures;
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "buggyshop.db-admission.enabled=" + admissionGate,
+                "spring.datasource.hikari.maximum-pool-size=5",
+                "spring.datasource.hikari.connection-timeout=1000",
+                "buggyshop.db-admission.timeout=30s");
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public void burst(Outcomes outcomes) throws InterruptedException {
+        List<Future<?>> pending = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            pending.add(executor.submit(this::handleRequest));
+        }
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                outcomes.failures++;
+            }
+        }
+    }
+
+    private void handleRequest() {
+        try {
+            Thread.sleep(blockMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products", Long.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.buggyshop.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reserve/release round trips on a single hot product through InventoryService, for both
+ * inventory modes. Each operation reserves one unit and gives it back, so stock stays level.
+ * Optimistic-lock and lock-timeout failures are counted in "conflicts" instead of failing
+ * the run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationBenchmark {
+
+    private static final long HOT_PRODUCT_ID = 1L;
+
+    @Param({"database", "memory"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private InventoryService inventoryService;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long conflicts;
+    }
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("buggyshop.inventory.mode=" + mode);
+        inventoryService = context.getBean(InventoryService.class);
+
+        context.getBean(JdbcTemplate.class).update(
+                "UPDATE inventory SET quantity = ?, reserved = 0 WHERE product_id = ?", 1_000_000_000, HOT_PRODUCT_ID);
+        // Drop the counters loaded at startup so the memory engine reloads the new stock level
+        context.getBean(InventoryEngine.class).evict(HOT_PRODUCT_ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void reserveRelease1Thread(Outcomes outcomes) {
+        reserveRelease(outcomes);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void reserveRelease8Threads(Outcomes outcomes) {
+        reserveRelease(outcomes);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void reserveRelease64Threads(Outcomes outcomes) {
+        reserveRelease(outcomes);
+    }
+
+    private void reserveRelease(Outcomes outcomes) {
+        try {
+            inventoryService.reserveStock(HOT_PRODUCT_ID, 1);
+        } catch (ConcurrencyFailureException e) {
+            outcomes.conflicts++;
+            return;
+        }
+
+        while (true) {
+            try {
+                inventoryService.releaseReservation(HOT_PRODUCT_ID, 1);
+                return;
+            } catch (ConcurrencyFailureException e) {
+                outcomes.conflicts++;
+            }
+        }
+    }
+}
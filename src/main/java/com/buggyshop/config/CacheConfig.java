@@ -0,0 +1,91 @@
+package com.buggyshop.config;
+
+import com.buggyshop.dto.ProductResponse;
+import com.buggyshop.repository.ProductRepository;
+import com.buggyshop.service.InventoryService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded Caffeine regions in place of the unbounded ConcurrentMapCache.
+ *
+ * Each region from {@link CacheProperties} is bounded by entry count or estimated weight,
+ * expires after write, and records hit/miss/eviction statistics. Regions that have a loader
+ * below can also refresh: an entry older than refresh-after-write is reloaded in the
+ * background while readers keep getting the current value. Invalidation on writes is done
+ * by {@link com.buggyshop.service.CacheService}.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+@Slf4j
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties,
+                                     ProductRepository productRepository,
+                                     @Lazy InventoryService inventoryService) {
+        Map<String, CacheLoader<Object, Object>> loaders = Map.of(
+                "products", key -> productRepository.findResponseById((Long) key).orElse(null),
+                "inventory", key -> inventoryService.loadInventory((Long) key));
+
+        List<CaffeineCache> caches = new ArrayList<>();
+        properties.getRegions().forEach((name, region) ->
+                caches.add(new CaffeineCache(name, build(name, region, loaders.get(name)), false)));
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(caches);
+        return cacheManager;
+    }
+
+    private static Cache<Object, Object> build(String name, CacheProperties.Region region,
+                                               CacheLoader<Object, Object> loader) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(region.getExpireAfterWrite())
+                .recordStats();
+
+        if (region.getMaximumWeight() > 0) {
+            builder.maximumWeight(region.getMaximumWeight()).weigher(CacheConfig::weigh);
+        } else {
+            builder.maximumSize(region.getMaximumSize());
+        }
+
+        log.info("Cache region '{}': maxSize={}, maxWeight={}, expireAfterWrite={}, refreshAfterWrite={}",
+                name, region.getMaximumWeight() > 0 ? "-" : region.getMaximumSize(),
+                region.getMaximumWeight() > 0 ? region.getMaximumWeight() : "-",
+                region.getExpireAfterWrite(), region.getRefreshAfterWrite());
+
+        if (region.getRefreshAfterWrite() != null && loader != null) {
+            return builder.refreshAfterWrite(region.getRefreshAfterWrite()).build(loader);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Rough retained size in bytes, good enough to keep large descriptions from crowding out
+     * the rest of the catalog.
+     */
+    private static int weigh(Object key, Object value) {
+        if (value instanceof ProductResponse product) {
+            return 160 + 2 * (length(product.getName()) + length(product.getDescription())
+                    + length(product.getSku()) + length(product.getCategoryName()));
+        }
+        return 96;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
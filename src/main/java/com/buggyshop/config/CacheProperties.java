@@ -0,0 +1,29 @@
+package com.buggyshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-region cache settings under buggyshop.cache.regions.&lt;name&gt;.
+ */
+@Data
+@ConfigurationProperties(prefix = "buggyshop.cache")
+public class CacheProperties {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        /** Maximum number of entries; ignored when maximumWeight is set. */
+        private long maximumSize = 1000;
+        /** Maximum total weight in estimated bytes; 0 means bound by entry count instead. */
+        private long maximumWeight = 0;
+        private Duration expireAfterWrite = Duration.ofMinutes(5);
+        /** Entries older than this are reloaded in the background on access; null disables. */
+        private Duration refreshAfterWrite;
+    }
+}
@@ -0,0 +1,103 @@
+package com.buggyshop.config;
+
+import com.buggyshop.datasource.Workload;
+import com.buggyshop.datasource.WorkloadRoutingDataSource;
+import com.buggyshop.datasource.WorkloadRoutingInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Two connection pools, so analytics can never starve checkout:
+ * - oltp: spring.datasource + spring.datasource.hikari
+ * - analytics: buggyshop.datasource.analytics (URL of a read replica, or the primary by
+ *   default) + buggyshop.datasource.analytics.hikari
+ *
+ * The application's DataSource routes between them per connection (see
+ * {@link WorkloadRoutingDataSource}). Each pool gets its own statement timeout, and the DB
+ * admission gate and SQL accounting wrap each pool separately.
+ */
+@Configuration
+@EnableConfigurationProperties(WorkloadDataSourceProperties.class)
+@Slf4j
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    private final WorkloadDataSourceProperties properties;
+
+    public DataSourceRoutingConfig(WorkloadDataSourceProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource oltpDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("oltp");
+        applyStatementTimeout(pool, properties.getOltp().getStatementTimeout());
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("buggyshop.datasource.analytics.hikari")
+    public HikariDataSource analyticsDataSource(DataSourceProperties dataSourceProperties) {
+        WorkloadDataSourceProperties.Analytics analytics = properties.getAnalytics();
+        boolean replica = StringUtils.hasText(analytics.getUrl());
+
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(dataSourceProperties.determineDriverClassName())
+                .url(replica ? analytics.getUrl() : dataSourceProperties.determineUrl())
+                .username(StringUtils.hasText(analytics.getUsername())
+                        ? analytics.getUsername() : dataSourceProperties.determineUsername())
+                .password(StringUtils.hasText(analytics.getPassword())
+                        ? analytics.getPassword() : dataSourceProperties.determinePassword())
+                .build();
+        pool.setPoolName("analytics");
+        applyStatementTimeout(pool, analytics.getStatementTimeout());
+
+        log.info("Analytics pool uses the {}", replica ? "read replica " + analytics.getUrl() : "primary database");
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("oltpDataSource") DataSource oltp,
+                                 @Qualifier("analyticsDataSource") DataSource analytics) {
+        WorkloadRoutingDataSource routing = new WorkloadRoutingDataSource();
+        routing.setTargetDataSources(Map.of(Workload.OLTP, oltp, Workload.ANALYTICS, analytics));
+        routing.setDefaultTargetDataSource(oltp);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy(routing);
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return lazy;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new WorkloadRoutingInterceptor(properties.getReadYourWritesHeader()));
+    }
+
+    private static void applyStatementTimeout(HikariDataSource pool, Duration statementTimeout) {
+        if (statementTimeout != null && !statementTimeout.isZero()) {
+            pool.setConnectionInitSql("SET statement_timeout = " + statementTimeout.toMillis());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.buggyshop.config;
+
+import com.buggyshop.datasource.AdmissionControlledDataSource;
+import com.buggyshop.instrumentation.LatencyRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Puts an {@link AdmissionControlledDataSource} with one permit per pooled connection in
+ * front of every Hikari pool (buggyshop.db-admission.enabled, on by default only with virtual
+ * threads). Runs before the SQL accounting post-processor, so accounting wraps the gate and
+ * sees admitted statements only.
+ */
+@Configuration
+@ConditionalOnProperty(name = "buggyshop.db-admission.enabled", havingValue = "true")
+@Slf4j
+public class DbAdmissionConfig {
+
+    @Bean
+    public static BeanPostProcessor dbAdmissionDataSourcePostProcessor(Environment environment,
+                                                                       ObjectProvider<LatencyRegistry> latencyRegistry) {
+        return new AdmissionPostProcessor(environment, latencyRegistry);
+    }
+
+    private static final class AdmissionPostProcessor implements BeanPostProcessor, Ordered {
+
+        private final Environment environment;
+        private final ObjectProvider<LatencyRegistry> latencyRegistry;
+
+        AdmissionPostProcessor(Environment environment, ObjectProvider<LatencyRegistry> latencyRegistry) {
+            this.environment = environment;
+            this.latencyRegistry = latencyRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource pool)) {
+                return bean;
+            }
+            Duration timeout = environment.getProperty("buggyshop.db-admission.timeout", Duration.class,
+                    Duration.ofMillis(pool.getConnectionTimeout()));
+            String name = pool.getPoolName() != null ? pool.getPoolName() : beanName;
+
+            log.info("DB admission gate for pool '{}': {} permits, timeout {}", name, pool.getMaximumPoolSize(), timeout);
+            return new AdmissionControlledDataSource(pool, name, pool.getMaximumPoolSize(), timeout,
+                    latencyRegistry.getObject());
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+}
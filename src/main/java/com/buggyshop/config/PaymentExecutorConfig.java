@@ -0,0 +1,51 @@
+package com.buggyshop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Dedicated executor for payment gateway calls. Gateway calls run here without a
+ * transaction, so a slow gateway only ties up these threads, never a DB connection.
+ *
+ * With spring.threads.virtual.enabled every gateway call gets its own virtual thread
+ * instead; max-size + queue-capacity then caps how many calls are in flight, and a
+ * submitter over the cap waits rather than being rejected.
+ */
+@Configuration
+public class PaymentExecutorConfig {
+
+    @Bean(name = "paymentExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor paymentExecutor(
+            @Value("${buggyshop.payment.executor.core-size:8}") int coreSize,
+            @Value("${buggyshop.payment.executor.max-size:32}") int maxSize,
+            @Value("${buggyshop.payment.executor.queue-capacity:500}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "paymentExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualPaymentExecutor(
+            @Value("${buggyshop.payment.executor.max-size:32}") int maxSize,
+            @Value("${buggyshop.payment.executor.queue-capacity:500}") int queueCapacity) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(maxSize + queueCapacity);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+}
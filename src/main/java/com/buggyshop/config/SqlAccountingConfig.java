@@ -0,0 +1,54 @@
+package com.buggyshop.config;
+
+import com.buggyshop.instrumentation.SqlAccountingFilter;
+import com.buggyshop.instrumentation.SqlAccountingListener;
+import com.buggyshop.instrumentation.SqlAccountingRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Per-request SQL accounting (buggyshop.sql-accounting.enabled): the DataSource is wrapped
+ * with a datasource-proxy that reports every statement and ResultSet row to
+ * {@link SqlAccountingListener}, and a filter attributes them to the current endpoint.
+ * Aggregates are served by GET /internal/sql-stats.
+ */
+@Configuration
+@ConditionalOnProperty(name = "buggyshop.sql-accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlAccountingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // The routing front only hands out connections of the pools, which are wrapped themselves
+                if (!(bean instanceof DataSource dataSource) || bean instanceof LazyConnectionDataSourceProxy) {
+                    return bean;
+                }
+                SqlAccountingListener listener = new SqlAccountingListener();
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name("sql-accounting")
+                        .listener(listener)
+                        .methodListener(listener)
+                        .proxyResultSet()
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlAccountingFilter> sqlAccountingFilter(SqlAccountingRegistry registry) {
+        FilterRegistrationBean<SqlAccountingFilter> registration =
+                new FilterRegistrationBean<>(new SqlAccountingFilter(registry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
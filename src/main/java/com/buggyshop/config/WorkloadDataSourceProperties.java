@@ -0,0 +1,39 @@
+package com.buggyshop.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the workload pools under buggyshop.datasource. Pool sizing and timeouts come
+ * from spring.datasource.hikari (OLTP) and buggyshop.datasource.analytics.hikari (analytics).
+ */
+@Data
+@ConfigurationProperties(prefix = "buggyshop.datasource")
+public class WorkloadDataSourceProperties {
+
+    private Pool oltp = new Pool();
+    private Analytics analytics = new Analytics();
+
+    /** Request header that, set to "true", sends a whole request to the OLTP pool. */
+    private String readYourWritesHeader = "X-Read-Your-Writes";
+
+    @Data
+    public static class Pool {
+        /** Server-side statement timeout set on every new connection (PostgreSQL); 0 disables. */
+        private Duration statementTimeout = Duration.ZERO;
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Analytics extends Pool {
+        /** Read replica JDBC URL; empty means the primary database. */
+        private String url;
+        /** Defaults to spring.datasource.username. */
+        private String username;
+        /** Defaults to spring.datasource.password. */
+        private String password;
+    }
+}
@@ -1,13 +1,22 @@
 package com.buggyshop.controller;
 
+import com.buggyshop.datasource.AnalyticsWorkload;
+import com.buggyshop.dto.RevenueTotals;
+import com.buggyshop.dto.SnapshotGroup;
+import com.buggyshop.entity.BucketGranularity;
 import com.buggyshop.entity.Order;
+import com.buggyshop.entity.OrderStatus;
 import com.buggyshop.entity.Product;
+import com.buggyshop.service.AnalyticsEngine;
 import com.buggyshop.service.AnalyticsService;
+import com.buggyshop.service.RevenueRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -19,12 +28,15 @@ import java.util.Map;
  * - Complex joins without optimization
  */
 @RestController
+@AnalyticsWorkload
 @RequestMapping("/api/analytics")
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final RevenueRollupService revenueRollupService;
+    private final AnalyticsEngine analyticsEngine;
 
     /**
      * Slow Query #1: N+1 Problem
@@ -72,4 +84,88 @@ public class AnalyticsController {
         List<Map<String, Object>> report = analyticsService.getProductRatingsReport();
         return ResponseEntity.ok(report);
     }
+
+    /**
+     * Sales per product (times ordered, units sold, revenue, review count) from the
+     * maintained sales and rating rollups.
+     */
+    @GetMapping("/product-sales-report")
+    public ResponseEntity<List<Map<String, Object>>> getProductSalesReport() {
+        log.info("GET /api/analytics/product-sales-report - Reading sales rollups");
+        List<Map<String, Object>> report = analyticsService.getProductSalesReport();
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Revenue, units and orders in [from, to) per status, merged from month, day and hour
+     * buckets. Optionally for one category (-1 = uncategorized) or split by category.
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueTotals>> getRevenue(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "false") boolean byCategory) {
+        log.info("GET /api/analytics/revenue - from={}, to={}, categoryId={}, status={}, byCategory={}",
+                from, to, categoryId, status, byCategory);
+        return ResponseEntity.ok(revenueRollupService.getTotals(from, to, categoryId, status, byCategory));
+    }
+
+    /**
+     * Revenue per HOUR, DAY or MONTH bucket in [from, to) and status.
+     */
+    @GetMapping("/revenue/series")
+    public ResponseEntity<List<RevenueTotals>> getRevenueSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") BucketGranularity granularity,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) OrderStatus status) {
+        log.info("GET /api/analytics/revenue/series - from={}, to={}, granularity={}, categoryId={}, status={}",
+                from, to, granularity, categoryId, status);
+        return ResponseEntity.ok(revenueRollupService.getSeries(from, to, granularity, categoryId, status));
+    }
+
+    /**
+     * Age and size of the in-memory columnar snapshot behind the /snapshot reports.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> getSnapshotInfo() {
+        return ResponseEntity.ok(analyticsEngine.getInfo());
+    }
+
+    @GetMapping("/snapshot/product-ratings-report")
+    public ResponseEntity<List<Map<String, Object>>> getSnapshotProductRatingsReport() {
+        log.info("GET /api/analytics/snapshot/product-ratings-report");
+        return ResponseEntity.ok(analyticsEngine.getProductRatingsReport());
+    }
+
+    @GetMapping("/snapshot/product-sales-report")
+    public ResponseEntity<List<Map<String, Object>>> getSnapshotProductSalesReport() {
+        log.info("GET /api/analytics/snapshot/product-sales-report");
+        return ResponseEntity.ok(analyticsEngine.getProductSalesReport());
+    }
+
+    /**
+     * Order lines, units and revenue grouped by PRODUCT, CATEGORY, STATUS or DAY, for the
+     * given order statuses (sold orders by default).
+     */
+    @GetMapping("/snapshot/order-lines")
+    public ResponseEntity<List<SnapshotGroup>> groupSnapshotOrderLines(
+            @RequestParam(defaultValue = "CATEGORY") AnalyticsEngine.Dimension groupBy,
+            @RequestParam(required = false) List<OrderStatus> status) {
+        log.info("GET /api/analytics/snapshot/order-lines - groupBy={}, status={}", groupBy, status);
+        return ResponseEntity.ok(analyticsEngine.groupOrderLines(groupBy, status));
+    }
+
+    /**
+     * Review count and average rating grouped by PRODUCT or CATEGORY.
+     */
+    @GetMapping("/snapshot/reviews")
+    public ResponseEntity<List<SnapshotGroup>> groupSnapshotReviews(
+            @RequestParam(defaultValue = "CATEGORY") AnalyticsEngine.Dimension groupBy) {
+        log.info("GET /api/analytics/snapshot/reviews - groupBy={}", groupBy);
+        return ResponseEntity.ok(analyticsEngine.groupReviews(groupBy));
+    }
 }
@@ -0,0 +1,24 @@
+package com.buggyshop.controller;
+
+import com.buggyshop.service.CacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Map<String, Object>>> getStats() {
+        log.info("GET /api/cache/stats");
+        return ResponseEntity.ok(cacheService.getStats());
+    }
+}
@@ -0,0 +1,61 @@
+package com.buggyshop.controller;
+
+import com.buggyshop.dto.CartItemRequest;
+import com.buggyshop.dto.CartResponse;
+import com.buggyshop.service.CartService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/carts")
+@RequiredArgsConstructor
+@Slf4j
+public class CartController {
+
+    private final CartService cartService;
+
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<CartResponse> getCart(@PathVariable String sessionId) {
+        log.info("GET /api/carts/{}", sessionId);
+        return ResponseEntity.ok(cartService.getCart(sessionId));
+    }
+
+    @PostMapping("/{sessionId}/items")
+    public ResponseEntity<CartResponse> addItem(
+            @PathVariable String sessionId,
+            @Valid @RequestBody CartItemRequest request) {
+        log.info("POST /api/carts/{}/items - productId={}, quantity={}", sessionId, request.getProductId(), request.getQuantity());
+        return ResponseEntity.ok(cartService.addItem(sessionId, request));
+    }
+
+    @PutMapping("/{sessionId}/items/{productId}")
+    public ResponseEntity<CartResponse> updateItem(
+            @PathVariable String sessionId,
+            @PathVariable Long productId,
+            @RequestParam Integer quantity) {
+        log.info("PUT /api/carts/{}/items/{} - quantity={}", sessionId, productId, quantity);
+        return ResponseEntity.ok(cartService.updateItem(sessionId, productId, quantity));
+    }
+
+    @DeleteMapping("/{sessionId}/items/{productId}")
+    public ResponseEntity<CartResponse> removeItem(
+            @PathVariable String sessionId,
+            @PathVariable Long productId) {
+        log.info("DELETE /api/carts/{}/items/{}", sessionId, productId);
+        return ResponseEntity.ok(cartService.removeItem(sessionId, productId));
+    }
+
+    /**
+     * Call after login: merges the session's anonymous cart into the user's cart.
+     */
+    @PostMapping("/{sessionId}/merge")
+    public ResponseEntity<CartResponse> mergeOnLogin(
+            @PathVariable String sessionId,
+            @RequestParam Long userId) {
+        log.info("POST /api/carts/{}/merge - userId={}", sessionId, userId);
+        return ResponseEntity.ok(cartService.mergeOnLogin(sessionId, userId));
+    }
+}
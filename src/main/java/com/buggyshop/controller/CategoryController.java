@@ -0,0 +1,70 @@
+package com.buggyshop.controller;
+
+import com.buggyshop.dto.CategoryNode;
+import com.buggyshop.dto.CategoryRequest;
+import com.buggyshop.dto.ProductResponse;
+import com.buggyshop.service.CategoryService;
+import com.buggyshop.service.ProductService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryController {
+
+    private final CategoryService categoryService;
+    private final ProductService productService;
+
+    @GetMapping("/tree")
+    public ResponseEntity<List<CategoryNode>> getTree() {
+        log.info("GET /api/categories/tree");
+        return ResponseEntity.ok(categoryService.getTree());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CategoryNode> getCategory(@PathVariable Long id) {
+        log.info("GET /api/categories/{}", id);
+        return ResponseEntity.ok(categoryService.getCategory(id));
+    }
+
+    /**
+     * Products in the category and, unless includeSubcategories=false, all of its subcategories.
+     */
+    @GetMapping("/{id}/products")
+    public ResponseEntity<Page<ProductResponse>> getProducts(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "true") boolean includeSubcategories,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        log.info("GET /api/categories/{}/products - includeSubcategories={}, page={}, size={}, sortBy={}",
+                id, includeSubcategories, page, size, sortBy);
+        Page<ProductResponse> products = productService.getProductsInCategory(id, includeSubcategories, page, size, sortBy);
+        return ResponseEntity.ok(products);
+    }
+
+    @PostMapping
+    public ResponseEntity<CategoryNode> createCategory(@Valid @RequestBody CategoryRequest request) {
+        log.info("POST /api/categories - Creating category: {}", request.getName());
+        CategoryNode category = categoryService.createCategory(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(category);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<CategoryNode> updateCategory(
+            @PathVariable Long id,
+            @Valid @RequestBody CategoryRequest request) {
+        log.info("PUT /api/categories/{} - Updating category", id);
+        CategoryNode category = categoryService.updateCategory(id, request);
+        return ResponseEntity.ok(category);
+    }
+}
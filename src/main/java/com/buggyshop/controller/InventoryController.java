@@ -1,12 +1,15 @@
 package com.buggyshop.controller;
 
+import com.buggyshop.dto.LowStockProduct;
 import com.buggyshop.entity.Inventory;
-import com.buggyshop.entity.Product;
 import com.buggyshop.service.InventoryService;
+import com.buggyshop.service.StockThresholdFeed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,6 +20,7 @@ import java.util.List;
 public class InventoryController {
 
     private final InventoryService inventoryService;
+    private final StockThresholdFeed stockThresholdFeed;
 
     @GetMapping("/{productId}")
     public ResponseEntity<Inventory> getInventory(@PathVariable Long productId) {
@@ -43,10 +47,30 @@ public class InventoryController {
         return ResponseEntity.ok().build();
     }
 
+    @PutMapping("/{productId}/reorder-threshold")
+    public ResponseEntity<Void> updateReorderThreshold(
+            @PathVariable Long productId,
+            @RequestParam Integer threshold) {
+        log.info("PUT /api/inventory/{}/reorder-threshold - threshold={}", productId, threshold);
+        inventoryService.updateReorderThreshold(productId, threshold);
+        return ResponseEntity.ok().build();
+    }
+
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProducts() {
+    public ResponseEntity<List<LowStockProduct>> getLowStockProducts() {
         log.info("GET /api/inventory/low-stock");
-        List<Product> products = inventoryService.getLowStockProducts();
+        List<LowStockProduct> products = inventoryService.getLowStockProducts();
         return ResponseEntity.ok(products);
     }
+
+    /**
+     * Server-sent events for every low-stock / out-of-stock / back-in-stock crossing.
+     * Reconnecting clients send Last-Event-ID to receive what they missed.
+     */
+    @GetMapping(value = "/low-stock/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStockThresholdEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("GET /api/inventory/low-stock/events - lastEventId={}", lastEventId);
+        return stockThresholdFeed.subscribe(lastEventId);
+    }
 }
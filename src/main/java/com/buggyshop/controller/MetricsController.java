@@ -0,0 +1,37 @@
+package com.buggyshop.controller;
+
+import com.buggyshop.instrumentation.LatencyRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Latency histograms of the business operations, per outcome.
+ */
+@RestController
+@RequestMapping("/internal/metrics")
+@RequiredArgsConstructor
+@Slf4j
+public class MetricsController {
+
+    private static final MediaType PROMETHEUS_TEXT = MediaType.parseMediaType("text/plain;version=0.0.4;charset=utf-8");
+
+    private final LatencyRegistry latencyRegistry;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getLatencies() {
+        log.info("GET /internal/metrics");
+        return ResponseEntity.ok(latencyRegistry.snapshot());
+    }
+
+    @GetMapping("/prometheus")
+    public ResponseEntity<String> getPrometheusMetrics() {
+        return ResponseEntity.ok()
+                .contentType(PROMETHEUS_TEXT)
+                .body(latencyRegistry.prometheus());
+    }
+}
@@ -1,5 +1,6 @@
 package com.buggyshop.controller;
 
+import com.buggyshop.datasource.AnalyticsWorkload;
 import com.buggyshop.entity.Order;
 import com.buggyshop.entity.User;
 import com.buggyshop.repository.UserRepository;
@@ -22,6 +23,7 @@ import java.util.Map;
  * - N queries fetch orders for each user (one query per user)
  */
 @RestController
+@AnalyticsWorkload
 @RequestMapping("/api/test-n1")
 @RequiredArgsConstructor
 @Slf4j
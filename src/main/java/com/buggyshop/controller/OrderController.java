@@ -1,16 +1,27 @@
 package com.buggyshop.controller;
 
+import com.buggyshop.dto.OrderDetail;
 import com.buggyshop.dto.OrderRequest;
+import com.buggyshop.dto.OrderSummary;
+import com.buggyshop.dto.PaymentStatusResponse;
 import com.buggyshop.entity.Order;
+import com.buggyshop.service.OrderExportService;
 import com.buggyshop.service.OrderService;
+import com.buggyshop.service.PaymentService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -19,6 +30,8 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final PaymentService paymentService;
+    private final OrderExportService orderExportService;
 
     @PostMapping
     public ResponseEntity<Order> createOrder(@Valid @RequestBody OrderRequest request) {
@@ -27,29 +40,75 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
+    /**
+     * Streams orders created in [from, to) as NDJSON (one order per line, items nested)
+     * or CSV (one row per order line).
+     */
+    @GetMapping("/export")
+    public void exportOrders(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        log.info("GET /api/orders/export - from={}, to={}, format={}", from, to, format);
+
+        // Validate before the response is committed to a streaming content type
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        OrderExportService.Format exportFormat = switch (format.toLowerCase()) {
+            case "ndjson" -> OrderExportService.Format.NDJSON;
+            case "csv" -> OrderExportService.Format.CSV;
+            default -> throw new IllegalArgumentException(
+                    String.format("Invalid export format: '%s'. Allowed formats: ndjson, csv", format));
+        };
+
+        response.setContentType(exportFormat == OrderExportService.Format.CSV ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"orders." + format.toLowerCase() + "\"");
+        orderExportService.exportOrders(from, to, exportFormat, response.getOutputStream());
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Order> getOrder(
+    public ResponseEntity<OrderDetail> getOrder(
             @PathVariable Long id,
             @RequestParam Long userId) {
         log.info("GET /api/orders/{} - userId={}", id, userId);
-        Order order = orderService.getOrder(id, userId);
+        OrderDetail order = orderService.getOrder(id, userId);
         return ResponseEntity.ok(order);
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getUserOrders(@PathVariable Long userId) {
-        log.info("GET /api/orders/user/{}", userId);
-        List<Order> orders = orderService.getUserOrders(userId);
+    public ResponseEntity<Page<OrderSummary>> getUserOrders(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("GET /api/orders/user/{} - page={}, size={}", userId, page, size);
+        Page<OrderSummary> orders = orderService.getUserOrders(userId, page, size);
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Starts payment and returns immediately with status PAYMENT_PROCESSING.
+     * Poll GET /api/orders/{id}/payment for the outcome.
+     */
     @PostMapping("/{id}/payment")
-    public ResponseEntity<Order> processPayment(
+    public ResponseEntity<PaymentStatusResponse> processPayment(
             @PathVariable Long id,
             @RequestParam String paymentMethod) {
         log.info("POST /api/orders/{}/payment - method={}", id, paymentMethod);
-        Order order = orderService.processPayment(id, paymentMethod);
-        return ResponseEntity.ok(order);
+        PaymentStatusResponse status = paymentService.processPayment(id, paymentMethod);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/" + id + "/payment"))
+                .body(status);
+    }
+
+    @GetMapping("/{id}/payment")
+    public ResponseEntity<PaymentStatusResponse> getPaymentStatus(@PathVariable Long id) {
+        log.info("GET /api/orders/{}/payment", id);
+        PaymentStatusResponse status = paymentService.getPaymentStatus(id);
+        return ResponseEntity.ok(status);
     }
 
     @PutMapping("/{id}/cancel")
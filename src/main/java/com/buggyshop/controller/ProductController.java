@@ -1,16 +1,24 @@
 package com.buggyshop.controller;
 
+import com.buggyshop.dto.ProductCursorPage;
+import com.buggyshop.dto.ProductImportResult;
 import com.buggyshop.dto.ProductRequest;
 import com.buggyshop.dto.ProductResponse;
+import com.buggyshop.dto.ProductSearchPage;
+import com.buggyshop.service.ProductImportService;
 import com.buggyshop.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
@@ -18,6 +26,7 @@ import org.springframework.web.bind.annotation.*;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
 
     @PostMapping
     public ResponseEntity<ProductResponse> createProduct(@Valid @RequestBody ProductRequest request) {
@@ -26,6 +35,22 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Bulk import from a JSON array (application/json) or CSV with a header row (text/csv),
+     * read from the request body as it arrives. Columns/fields: name, description, price, sku,
+     * categoryId or category (name), initialStock.
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<ProductImportResult> importProducts(HttpServletRequest request) throws IOException {
+        log.info("POST /api/products/bulk - contentType={}", request.getContentType());
+        ProductImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.APPLICATION_JSON)
+                ? ProductImportService.Format.JSON
+                : ProductImportService.Format.CSV;
+        ProductImportResult result = productImportService.importProducts(request.getInputStream(), format);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping
     public ResponseEntity<Page<ProductResponse>> getProducts(
             @RequestParam(defaultValue = "0") int page,
@@ -36,6 +61,33 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Cursor-paged listing: pass the previous response's nextCursor to get the next page.
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<ProductCursorPage> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy) {
+        log.info("GET /api/products/scroll - size={}, sortBy={}", size, sortBy);
+        ProductCursorPage products = productService.getProductsAfter(cursor, size, sortBy);
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * All terms must match; a trailing '*' makes a term a prefix. A prefix expands to at most
+     * 128 index terms; prefixes cut off there are listed in truncatedPrefixes.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchPage> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        log.info("GET /api/products/search - q={}, page={}, size={}", q, page, size);
+        ProductSearchPage products = productService.searchProducts(q, page, size);
+        return ResponseEntity.ok(products);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProduct(@PathVariable Long id) {
         log.info("GET /api/products/{}", id);
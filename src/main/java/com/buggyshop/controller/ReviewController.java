@@ -0,0 +1,36 @@
+package com.buggyshop.controller;
+
+import com.buggyshop.dto.ReviewRequest;
+import com.buggyshop.dto.ReviewResponse;
+import com.buggyshop.service.ReviewService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewController {
+
+    private final ReviewService reviewService;
+
+    @PostMapping("/products/{productId}/reviews")
+    public ResponseEntity<ReviewResponse> createReview(
+            @PathVariable Long productId,
+            @Valid @RequestBody ReviewRequest request) {
+        log.info("POST /api/products/{}/reviews - rating={}", productId, request.getRating());
+        ReviewResponse response = reviewService.createReview(productId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @DeleteMapping("/reviews/{id}")
+    public ResponseEntity<Void> deleteReview(@PathVariable Long id) {
+        log.info("DELETE /api/reviews/{}", id);
+        reviewService.deleteReview(id);
+        return ResponseEntity.noContent().build();
+    }
+}
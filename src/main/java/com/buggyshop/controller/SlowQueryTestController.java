@@ -1,5 +1,6 @@
 package com.buggyshop.controller;
 
+import com.buggyshop.datasource.AnalyticsWorkload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,7 @@ import java.util.Map;
  * These endpoints execute single queries that are genuinely slow.
  */
 @RestController
+@AnalyticsWorkload
 @RequestMapping("/api/test-slow-query")
 @RequiredArgsConstructor
 @Slf4j
@@ -0,0 +1,28 @@
+package com.buggyshop.controller;
+
+import com.buggyshop.instrumentation.SqlAccountingRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Rolling per-endpoint SQL statistics: statement count, JDBC time, rows fetched and
+ * repeated-statement (N+1) signatures.
+ */
+@RestController
+@RequestMapping("/internal/sql-stats")
+@RequiredArgsConstructor
+@Slf4j
+public class SqlStatsController {
+
+    private final SqlAccountingRegistry registry;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getSqlStats() {
+        log.info("GET /internal/sql-stats");
+        return ResponseEntity.ok(registry.snapshot());
+    }
+}
@@ -0,0 +1,129 @@
+package com.buggyshop.datasource;
+
+import com.buggyshop.instrumentation.LatencyRegistry;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fair admission gate in front of a connection pool.
+ *
+ * Holds one permit per pooled connection: a caller takes a permit before borrowing and the
+ * permit comes back when the connection is closed. Callers beyond the pool size therefore
+ * wait here, first come first served, instead of inside the pool, where they would fail
+ * after the pool's connection-timeout. Waiting on the semaphore parks the thread, which for
+ * a virtual thread costs only its small heap-allocated stack, so thousands of requests can
+ * queue for a handful of connections. Wait times are recorded as "db.admission.&lt;name&gt;".
+ */
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final String name;
+    private final Semaphore permits;
+    private final int maxPermits;
+    private final long timeoutNanos;
+    private final LatencyRegistry latencyRegistry;
+
+    public AdmissionControlledDataSource(DataSource target, String name, int maxPermits,
+                                         Duration timeout, LatencyRegistry latencyRegistry) {
+        super(target);
+        this.name = name;
+        this.maxPermits = maxPermits;
+        this.permits = new Semaphore(maxPermits, true);
+        this.timeoutNanos = timeout.toNanos();
+        this.latencyRegistry = latencyRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getMaxPermits() {
+        return maxPermits;
+    }
+
+    /**
+     * Connections currently borrowed through the gate.
+     */
+    public int getActive() {
+        return maxPermits - permits.availablePermits();
+    }
+
+    /**
+     * Approximate number of callers waiting for a connection.
+     */
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a " + name + " connection");
+        }
+
+        String operation = "db.admission." + name;
+        if (!admitted) {
+            latencyRegistry.record(operation, "timeout", System.nanoTime() - start);
+            throw new SQLTransientConnectionException(String.format(
+                    "No %s connection available after %d ms (%d waiting)",
+                    name, TimeUnit.NANOSECONDS.toMillis(timeoutNanos), permits.getQueueLength()));
+        }
+        latencyRegistry.record(operation, LatencyRegistry.SUCCESS, System.nanoTime() - start);
+    }
+
+    /**
+     * Wraps the connection so that closing it (once) hands the permit back.
+     */
+    private Connection gated(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) {
+                                permits.release();
+                            }
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,18 @@
+package com.buggyshop.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller whose requests run on the analytics pool, transactional or not, so a
+ * slow report can never take connections away from checkout. Writes inside such a request
+ * (read-write transactions) still go to the OLTP pool.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface AnalyticsWorkload {
+}
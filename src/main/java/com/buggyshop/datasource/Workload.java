@@ -0,0 +1,11 @@
+package com.buggyshop.datasource;
+
+/**
+ * Connection pools that statements are routed to by {@link WorkloadRoutingDataSource}.
+ */
+public enum Workload {
+    /** Checkout, payments and every other read-write path. */
+    OLTP,
+    /** Read-only transactions and analytics endpoints; optionally a read replica. */
+    ANALYTICS
+}
@@ -0,0 +1,77 @@
+package com.buggyshop.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-request routing state, kept in a thread local for the duration of a request (see
+ * {@link WorkloadRoutingInterceptor}).
+ *
+ * A request is pinned to the OLTP pool (read-your-writes) once it runs a read-write
+ * transaction, when the client sends the read-your-writes header because it has just written
+ * in an earlier request, or for the duration of {@link #onPrimary}. A pinned request reads
+ * what it wrote even when the analytics pool points at a lagging replica.
+ */
+public final class WorkloadRouting {
+
+    private static final ThreadLocal<State> CURRENT = new ThreadLocal<>();
+
+    private static final class State {
+        private final boolean analytics;
+        private boolean pinned;
+
+        private State(boolean analytics, boolean pinned) {
+            this.analytics = analytics;
+            this.pinned = pinned;
+        }
+    }
+
+    private WorkloadRouting() {
+    }
+
+    static void beginRequest(boolean analytics, boolean pinned) {
+        CURRENT.set(new State(analytics, pinned));
+    }
+
+    static void endRequest() {
+        CURRENT.remove();
+    }
+
+    static boolean isAnalyticsRequest() {
+        State state = CURRENT.get();
+        return state != null && state.analytics;
+    }
+
+    static boolean isPinnedToPrimary() {
+        State state = CURRENT.get();
+        return state != null && state.pinned;
+    }
+
+    /**
+     * Sends the rest of the current request to the OLTP pool. Outside a request there is
+     * nothing to pin and this does nothing.
+     */
+    public static void pinToPrimary() {
+        State state = CURRENT.get();
+        if (state != null) {
+            state.pinned = true;
+        }
+    }
+
+    /**
+     * Runs the action with every connection it opens taken from the OLTP pool, e.g. to read
+     * back a row written a moment ago. Works outside requests too.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        State previous = CURRENT.get();
+        CURRENT.set(new State(previous != null && previous.analytics, true));
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
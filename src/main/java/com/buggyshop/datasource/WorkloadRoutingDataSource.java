@@ -0,0 +1,34 @@
+package com.buggyshop.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Picks the pool for each physical connection:
+ * - requests pinned to the primary, and read-write transactions, use OLTP (a read-write
+ *   transaction also pins the rest of its request)
+ * - read-only transactions and requests to {@link AnalyticsWorkload} controllers use ANALYTICS
+ * - everything else uses OLTP
+ *
+ * The decision needs the transaction's read-only flag, which Spring only sets after the
+ * transaction has begun, so this must sit behind a LazyConnectionDataSourceProxy that
+ * defers fetching the connection to the first statement.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (WorkloadRouting.isPinnedToPrimary()) {
+            return Workload.OLTP;
+        }
+
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (inTransaction && !readOnly) {
+            WorkloadRouting.pinToPrimary();
+            return Workload.OLTP;
+        }
+
+        return readOnly || WorkloadRouting.isAnalyticsRequest() ? Workload.ANALYTICS : Workload.OLTP;
+    }
+}
@@ -0,0 +1,36 @@
+package com.buggyshop.datasource;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Sets up {@link WorkloadRouting} for each handled request: analytics if the controller is
+ * annotated {@link AnalyticsWorkload}, pinned to the primary if the client sends the
+ * read-your-writes header with value "true".
+ */
+public class WorkloadRoutingInterceptor implements HandlerInterceptor {
+
+    private final String readYourWritesHeader;
+
+    public WorkloadRoutingInterceptor(String readYourWritesHeader) {
+        this.readYourWritesHeader = readYourWritesHeader;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        boolean analytics = handler instanceof HandlerMethod method
+                && AnnotatedElementUtils.hasAnnotation(method.getBeanType(), AnalyticsWorkload.class);
+        boolean pinned = "true".equalsIgnoreCase(request.getHeader(readYourWritesHeader));
+
+        WorkloadRouting.beginRequest(analytics, pinned);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        WorkloadRouting.endRequest();
+    }
+}
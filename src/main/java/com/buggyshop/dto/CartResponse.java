@@ -0,0 +1,37 @@
+package com.buggyshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+    /** Pass this as cartId when placing the order. */
+    private Long cartId;
+    private String sessionId;
+    private Long userId;
+    private BigDecimal total;
+    @Builder.Default
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private String productName;
+        private String sku;
+        private Integer quantity;
+        private BigDecimal price;
+        private BigDecimal subtotal;
+    }
+}
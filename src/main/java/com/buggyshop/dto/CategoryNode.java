@@ -0,0 +1,31 @@
+package com.buggyshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A category as placed in the category tree.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CategoryNode {
+    private Long id;
+    private String name;
+    private String description;
+    private Long parentId;
+    private Integer depth;
+    /** Number of categories in this subtree, including this one */
+    private Integer subtreeSize;
+    /** Ancestors from the root down to the parent; only on single-category responses */
+    private List<CategoryNode> path;
+    /** Direct subcategories; only on tree responses */
+    private List<CategoryNode> children;
+}
@@ -0,0 +1,21 @@
+package com.buggyshop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryRequest {
+    @NotBlank(message = "Category name is required")
+    private String name;
+
+    private String description;
+
+    /** null for a top-level category */
+    private Long parentId;
+}
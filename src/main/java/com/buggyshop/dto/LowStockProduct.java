@@ -0,0 +1,24 @@
+package com.buggyshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockProduct {
+    private Long productId;
+    private String name;
+    private String sku;
+    private BigDecimal price;
+    private Long categoryId;
+    private String categoryName;
+    private Integer availableStock;
+    private Integer reorderThreshold;
+    private StockLevel level;
+}
@@ -0,0 +1,61 @@
+package com.buggyshop.dto;
+
+import com.buggyshop.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderDetail {
+    private Long id;
+    private Long userId;
+    private OrderStatus status;
+    private BigDecimal total;
+    private BigDecimal discount;
+    private BigDecimal finalTotal;
+    private String paymentId;
+    private String paymentFailureReason;
+    private String refundId;
+    private LocalDateTime createdAt;
+    private LocalDateTime paidAt;
+    private LocalDateTime shippedAt;
+    private LocalDateTime deliveredAt;
+    private LocalDateTime cancelledAt;
+    private ShippingAddress shippingAddress;
+    @Builder.Default
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private String productName;
+        private String sku;
+        private Integer quantity;
+        private BigDecimal price;
+        private BigDecimal subtotal;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ShippingAddress {
+        private String street;
+        private String city;
+        private String state;
+        private String zipCode;
+        private String country;
+    }
+}
@@ -0,0 +1,42 @@
+package com.buggyshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One line of the NDJSON order export.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRecord {
+    private Long id;
+    private Long userId;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime paidAt;
+    private BigDecimal total;
+    private BigDecimal discount;
+    private BigDecimal finalTotal;
+    @Builder.Default
+    private List<Item> items = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+        private BigDecimal price;
+        private BigDecimal subtotal;
+    }
+}
@@ -0,0 +1,29 @@
+package com.buggyshop.dto;
+
+import com.buggyshop.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a user's order list. Built directly by
+ * {@link com.buggyshop.repository.OrderRepository#findSummariesByUserId}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummary {
+    private Long id;
+    private OrderStatus status;
+    private BigDecimal total;
+    private BigDecimal discount;
+    private BigDecimal finalTotal;
+    private Integer itemCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime paidAt;
+}
@@ -0,0 +1,21 @@
+package com.buggyshop.dto;
+
+import com.buggyshop.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentStatusResponse {
+    private Long orderId;
+    private OrderStatus status;
+    private String paymentId;
+    private LocalDateTime paidAt;
+    private String failureReason;
+}
@@ -0,0 +1,18 @@
+package com.buggyshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCursorPage {
+    private List<ProductResponse> items;
+    /** Token for the next page; null on the last page. */
+    private String nextCursor;
+}
@@ -0,0 +1,43 @@
+package com.buggyshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import: row counts, throughput and the rejected rows.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResult {
+    private String format;
+    /** false when the input could not be read to the end; rows before that point are kept */
+    private boolean completed;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private long chunks;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    /** true when more rows failed than are listed in errors */
+    private boolean errorsTruncated;
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        /** 1-based data row (CSV header and JSON array brackets not counted) */
+        private long row;
+        private String sku;
+        private String message;
+    }
+}
@@ -0,0 +1,28 @@
+package com.buggyshop.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of search results; serialized like any other page plus {@code truncatedPrefixes}.
+ */
+public class ProductSearchPage extends PageImpl<ProductResponse> {
+
+    private final List<String> truncatedPrefixes;
+
+    public ProductSearchPage(List<ProductResponse> content, Pageable pageable, long total,
+                             List<String> truncatedPrefixes) {
+        super(content, pageable, total);
+        this.truncatedPrefixes = List.copyOf(truncatedPrefixes);
+    }
+
+    /**
+     * Prefix terms ("lap*") that matched more index terms than the search expands; results
+     * from the terms past the cap are missing, so a longer prefix should be used.
+     */
+    public List<String> getTruncatedPrefixes() {
+        return truncatedPrefixes;
+    }
+}
@@ -0,0 +1,27 @@
+package com.buggyshop.dto;
+
+import com.buggyshop.entity.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Merged revenue buckets. bucketStart is set for series points only, categoryId only when
+ * results are split by category.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueTotals {
+    private LocalDateTime bucketStart;
+    private Long categoryId;
+    private OrderStatus status;
+    private long orderCount;
+    private long unitsSold;
+    private BigDecimal revenue;
+}
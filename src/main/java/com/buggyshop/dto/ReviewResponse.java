@@ -0,0 +1,21 @@
+package com.buggyshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewResponse {
+    private Long id;
+    private Long productId;
+    private Long userId;
+    private Integer rating;
+    private String comment;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.buggyshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One group of an analytics snapshot group-by. key is the product id, category id (-1 for
+ * uncategorized), order status or day. Order-line groups carry units and revenue, review
+ * groups the average rating.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SnapshotGroup {
+    private String key;
+    private long count;
+    private Long unitsSold;
+    private BigDecimal revenue;
+    private Double averageRating;
+}
@@ -0,0 +1,14 @@
+package com.buggyshop.dto;
+
+public enum StockLevel {
+    IN_STOCK,
+    LOW_STOCK,
+    OUT_OF_STOCK;
+
+    public static StockLevel of(int available, int reorderThreshold) {
+        if (available <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return available < reorderThreshold ? LOW_STOCK : IN_STOCK;
+    }
+}
@@ -0,0 +1,28 @@
+package com.buggyshop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product moved between stock levels. previousLevel is absent for a product seen for the
+ * first time (e.g. created with stock already below its threshold).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockThresholdEvent {
+    private Long sequence;
+    private Long productId;
+    private StockLevel previousLevel;
+    private StockLevel level;
+    private Integer availableStock;
+    private Integer reorderThreshold;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,40 @@
+package com.buggyshop.entity;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Width of a {@link RevenueBucket}. Buckets start on local hour, day and month boundaries.
+ */
+public enum BucketGranularity {
+    HOUR,
+    DAY,
+    MONTH;
+
+    /**
+     * Start of the bucket containing the given time.
+     */
+    public LocalDateTime truncate(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Start of the first bucket that starts at or after the given time.
+     */
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime start = truncate(time);
+        return start.equals(time) ? start : next(start);
+    }
+
+    public LocalDateTime next(LocalDateTime bucketStart) {
+        return switch (this) {
+            case HOUR -> bucketStart.plusHours(1);
+            case DAY -> bucketStart.plusDays(1);
+            case MONTH -> bucketStart.plusMonths(1);
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package com.buggyshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One slice of a hot coupon's redemption counter, so concurrent checkouts spread their
+ * increments over several rows instead of queueing on the coupon row.
+ *
+ * A capped coupon hands each shard an allotment of its remaining uses (already counted in
+ * the coupon's usedCount); a shard can only redeem while used &lt; allotment. Unlimited
+ * coupons have no allotment. CouponShardReconciler periodically folds used back into the
+ * coupon and redistributes the allotments.
+ */
+@Entity
+@Table(name = "coupon_shards", uniqueConstraints =
+    @UniqueConstraint(name = "uk_coupon_shards_coupon_shard", columnNames = {"coupon_id", "shard"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CouponShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "coupon_id", nullable = false)
+    private Long couponId;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private int used;
+
+    /** Uses this shard may still hand out in total; null for unlimited coupons. */
+    private Integer allotment;
+}
@@ -15,6 +15,9 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Inventory {
+
+    public static final int DEFAULT_REORDER_THRESHOLD = 10;
+
     @Id
     private Long productId;
 
@@ -29,6 +32,13 @@ public class Inventory {
     @Column(nullable = false)
     private Integer reserved;
 
+    /**
+     * The product counts as low on stock once available units drop below this.
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private Integer reorderThreshold = DEFAULT_REORDER_THRESHOLD;
+
     private LocalDateTime updatedAt;
 
     @Version
@@ -8,5 +8,10 @@ public enum OrderStatus {
     SHIPPED,
     DELIVERED,
     CANCELLED,
-    REFUNDED
+    REFUNDED,
+    /**
+     * Payment outcome unknown after the gateway timeout; stock stays reserved until the charge
+     * is settled by hand or a late gateway answer arrives. Kept last so stored ordinals hold.
+     */
+    PAYMENT_REVIEW
 }
@@ -0,0 +1,75 @@
+package com.buggyshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Rating aggregates per product, maintained incrementally by ReviewService so that
+ * reports and product responses never have to scan the reviews table.
+ *
+ * Only written through bulk UPDATE statements in ProductRatingStatsRepository and by
+ * the reconciliation job.
+ */
+@Entity
+@Table(name = "product_rating_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductRatingStats {
+    @Id
+    private Long productId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    @Column(nullable = false)
+    private long reviewCount;
+
+    @Column(nullable = false)
+    private long ratingSum;
+
+    private Integer minRating;
+    private Integer maxRating;
+
+    @Column(nullable = false)
+    private long stars1;
+
+    @Column(nullable = false)
+    private long stars2;
+
+    @Column(nullable = false)
+    private long stars3;
+
+    @Column(nullable = false)
+    private long stars4;
+
+    @Column(nullable = false)
+    private long stars5;
+
+    public Double getAverageRating() {
+        return reviewCount > 0 ? (double) ratingSum / reviewCount : null;
+    }
+
+    /**
+     * Star value -> number of reviews, only for star values that occur.
+     */
+    public Map<Integer, Long> getDistribution() {
+        long[] stars = {stars1, stars2, stars3, stars4, stars5};
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < stars.length; i++) {
+            if (stars[i] > 0) {
+                distribution.put(i + 1, stars[i]);
+            }
+        }
+        return distribution;
+    }
+}
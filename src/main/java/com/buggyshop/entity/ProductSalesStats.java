@@ -0,0 +1,49 @@
+package com.buggyshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales aggregates per product over orders that are currently sold (paid and neither
+ * cancelled nor refunded), maintained incrementally by SalesStatsService as orders are
+ * paid, cancelled and refunded, so sales reports never have to scan order_items.
+ *
+ * Only written through bulk UPDATE statements in ProductSalesStatsRepository and by
+ * the reconciliation job.
+ */
+@Entity
+@Table(name = "product_sales_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesStats {
+    @Id
+    private Long productId;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @MapsId
+    @JoinColumn(name = "product_id")
+    private Product product;
+
+    /**
+     * Sold orders containing the product (an order with several lines for it counts once).
+     */
+    @Column(nullable = false)
+    private long timesOrdered;
+
+    @Column(nullable = false)
+    private long unitsSold;
+
+    /**
+     * Sum of line subtotals, before order-level coupon discounts.
+     */
+    @Builder.Default
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+}
@@ -0,0 +1,72 @@
+package com.buggyshop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated sales for one time bucket, category and order status, maintained by
+ * RevenueRollupService as orders are paid, cancelled and refunded. Every change is written
+ * to the hour, day and month bucket at once, so a range query can be answered from whole
+ * months plus a few days and hours at the edges.
+ *
+ * An order is bucketed by the time it was paid and counted under its current status: a
+ * cancelled or refunded order moves from its sold status to CANCELLED or REFUNDED in the
+ * buckets it was paid in. Besides one row per category there is an {@link #ALL_CATEGORIES}
+ * row, because an order spanning several categories counts once in each of them.
+ *
+ * Only written through the bulk statements in RevenueBucketRepository.
+ */
+@Entity
+@Table(name = "revenue_buckets")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueBucket {
+
+    public static final long ALL_CATEGORIES = 0L;
+    public static final long UNCATEGORIZED = -1L;
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false)
+    private long unitsSold;
+
+    /**
+     * Sum of line subtotals, before order-level coupon discounts.
+     */
+    @Builder.Default
+    @Column(nullable = false, precision = 16, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 8)
+        private BucketGranularity granularity;
+
+        @Column(nullable = false)
+        private LocalDateTime bucketStart;
+
+        @Column(nullable = false)
+        private Long categoryId;
+
+        @Enumerated(EnumType.STRING)
+        @Column(nullable = false, length = 20)
+        private OrderStatus status;
+    }
+}
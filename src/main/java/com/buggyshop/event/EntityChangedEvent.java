@@ -0,0 +1,15 @@
+package com.buggyshop.event;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Published by every service method that writes one of the cached entities. Listeners run
+ * after the surrounding transaction commits (or immediately when there is none).
+ */
+public record EntityChangedEvent(Class<?> entityType, Collection<Long> ids) {
+
+    public static EntityChangedEvent of(Class<?> entityType, Long id) {
+        return new EntityChangedEvent(entityType, List.of(id));
+    }
+}
@@ -0,0 +1,24 @@
+package com.buggyshop.event;
+
+import java.util.Map;
+
+/**
+ * Published by {@link com.buggyshop.service.InventoryService} whenever available stock or a
+ * reorder threshold changes. availableDeltas maps productId to the change in available units
+ * (negative for reservations); reorderThresholds carries new thresholds. Like
+ * {@link EntityChangedEvent}, listeners see it only once the change has committed.
+ */
+public record StockChangedEvent(Map<Long, Integer> availableDeltas, Map<Long, Integer> reorderThresholds) {
+
+    public static StockChangedEvent available(Long productId, int delta) {
+        return new StockChangedEvent(Map.of(productId, delta), Map.of());
+    }
+
+    public static StockChangedEvent available(Map<Long, Integer> deltas) {
+        return new StockChangedEvent(Map.copyOf(deltas), Map.of());
+    }
+
+    public static StockChangedEvent reorderThreshold(Long productId, int reorderThreshold) {
+        return new StockChangedEvent(Map.of(), Map.of(productId, reorderThreshold));
+    }
+}
@@ -1,7 +1,18 @@
 package com.buggyshop.exception;
 
 public class InsufficientInventoryException extends BuggyShopException {
+    private final Long productId;
+
     public InsufficientInventoryException(String message) {
+        this(message, null);
+    }
+
+    public InsufficientInventoryException(String message, Long productId) {
         super(message);
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
     }
 }
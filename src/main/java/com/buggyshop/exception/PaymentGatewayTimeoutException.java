@@ -0,0 +1,7 @@
+package com.buggyshop.exception;
+
+public class PaymentGatewayTimeoutException extends BuggyShopException {
+    public PaymentGatewayTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.buggyshop.instrumentation;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times {@link LatencyTracked} methods. Ordered ahead of the transaction and cache advice
+ * (both lowest precedence) so the measurement includes the commit and the cache lookup; not
+ * HIGHEST_PRECEDENCE, which would run before Spring exposes the join point for binding.
+ */
+@Aspect
+@Component
+@Order(0)
+@RequiredArgsConstructor
+public class LatencyAspect {
+
+    private final LatencyRegistry registry;
+
+    @Around(value = "@annotation(tracked)", argNames = "joinPoint,tracked")
+    public Object record(ProceedingJoinPoint joinPoint, LatencyTracked tracked) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            registry.record(tracked.value(), LatencyRegistry.SUCCESS, System.nanoTime() - start);
+            return result;
+        } catch (Throwable e) {
+            registry.record(tracked.value(), LatencyRegistry.outcomeOf(e), System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
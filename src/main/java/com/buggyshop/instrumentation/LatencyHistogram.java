@@ -0,0 +1,163 @@
+package com.buggyshop.instrumentation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HdrHistogram's log-linear bucket layout.
+ *
+ * Values are microseconds. Each power-of-two range is split into 128 linear sub-buckets, so
+ * any recorded value is reported within 1% of its true value (two significant digits) from
+ * 1 µs up to one hour, using a fixed array of ~3,300 counters. Recording is one atomic
+ * increment plus a LongAdder update; readers take a {@link Snapshot} without blocking writers,
+ * so a snapshot taken during recording may be off by the few values in flight.
+ */
+public final class LatencyHistogram {
+
+    static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT * 2;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+    private static final int COUNTS_LENGTH = countsLength(HIGHEST_TRACKABLE_MICROS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE_MICROS);
+        counts.incrementAndGet(countsIndex(value));
+        totalMicros.add(value);
+        if (value > maxMicros.get()) {
+            maxMicros.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[COUNTS_LENGTH];
+        long total = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total, totalMicros.sum(), maxMicros.get());
+    }
+
+    static int countsIndex(long value) {
+        int bucketIndex = LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    /**
+     * Largest value that lands in the same counter as the counter's index; percentiles report
+     * this, like HdrHistogram, so they never under-state latency.
+     */
+    static long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        long lowest = (long) subBucketIndex << bucketIndex;
+        return lowest + (1L << bucketIndex) - 1;
+    }
+
+    private static int countsLength(long highestTrackable) {
+        long smallestUntrackable = SUB_BUCKET_COUNT;
+        int buckets = 1;
+        while (smallestUntrackable <= highestTrackable) {
+            smallestUntrackable <<= 1;
+            buckets++;
+        }
+        return (buckets + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    }
+
+    /**
+     * Point-in-time copy of the counters.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalMicros() {
+            return totalMicros;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public double getMeanMicros() {
+            return count == 0 ? 0 : (double) totalMicros / count;
+        }
+
+        /**
+         * Value at the given percentile (0-100], in microseconds.
+         */
+        public long valueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestEquivalentValue(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        /**
+         * Number of recorded values at or below the given bound, at bucket resolution.
+         */
+        public long countAtOrBelow(long micros) {
+            if (micros >= HIGHEST_TRACKABLE_MICROS) {
+                return count;
+            }
+            int last = countsIndex(Math.max(micros, 0));
+            if (highestEquivalentValue(last) > micros) {
+                last--;
+            }
+            long below = 0;
+            for (int i = 0; i <= last; i++) {
+                below += counts[i];
+            }
+            return below;
+        }
+
+        public Snapshot merge(Snapshot other) {
+            long[] merged = counts.clone();
+            for (int i = 0; i < merged.length; i++) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, totalMicros + other.totalMicros,
+                    Math.max(maxMicros, other.maxMicros));
+        }
+    }
+}
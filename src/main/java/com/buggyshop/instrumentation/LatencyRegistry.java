@@ -0,0 +1,133 @@
+package com.buggyshop.instrumentation;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link LatencyHistogram} per (operation, outcome), cumulative since startup. Served as
+ * JSON percentiles and as Prometheus text: a classic histogram (so tail latency can be
+ * alerted on with histogram_quantile over rate()) plus precomputed quantile gauges taken
+ * from the full-resolution counters. Never reset, so the exported counters stay monotonic.
+ */
+@Component
+public class LatencyRegistry {
+
+    public static final String SUCCESS = "success";
+
+    static final String METRIC = "buggyshop_operation_duration_seconds";
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private static final long[] PROMETHEUS_BUCKETS_MICROS = {
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000,
+            500_000, 1_000_000, 2_500_000, 5_000_000, 10_000_000};
+
+    private final Map<String, Map<String, LatencyHistogram>> operations = new ConcurrentHashMap<>();
+
+    public void record(String operation, String outcome, long nanos) {
+        operations.computeIfAbsent(operation, o -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, o -> new LatencyHistogram())
+                .recordNanos(nanos);
+    }
+
+    public static String outcomeOf(Throwable e) {
+        return e.getClass().getSimpleName();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        snapshots().forEach((operation, byOutcome) -> {
+            LatencyHistogram.Snapshot all = null;
+            long failures = 0;
+            Map<String, Object> outcomes = new LinkedHashMap<>();
+            for (Map.Entry<String, LatencyHistogram.Snapshot> entry : byOutcome.entrySet()) {
+                LatencyHistogram.Snapshot snapshot = entry.getValue();
+                all = all == null ? snapshot : all.merge(snapshot);
+                if (!SUCCESS.equals(entry.getKey())) {
+                    failures += snapshot.getCount();
+                }
+                outcomes.put(entry.getKey(), describe(snapshot));
+            }
+
+            Map<String, Object> stats = describe(all);
+            stats.put("failureRate", all.getCount() == 0 ? 0.0 : (double) failures / all.getCount());
+            stats.put("outcomes", outcomes);
+            result.put(operation, stats);
+        });
+        return result;
+    }
+
+    public String prometheus() {
+        Map<String, Map<String, LatencyHistogram.Snapshot>> snapshots = snapshots();
+        StringBuilder out = new StringBuilder();
+
+        out.append("# HELP ").append(METRIC).append(" Latency of business operations by outcome.\n");
+        out.append("# TYPE ").append(METRIC).append(" histogram\n");
+        snapshots.forEach((operation, byOutcome) -> byOutcome.forEach((outcome, snapshot) -> {
+            String labels = "operation=\"" + escape(operation) + "\",outcome=\"" + escape(outcome) + "\"";
+            for (long bound : PROMETHEUS_BUCKETS_MICROS) {
+                line(out, METRIC + "_bucket", labels + ",le=\"" + seconds(bound) + "\"",
+                        snapshot.countAtOrBelow(bound));
+            }
+            line(out, METRIC + "_bucket", labels + ",le=\"+Inf\"", snapshot.getCount());
+            line(out, METRIC + "_sum", labels, seconds(snapshot.getTotalMicros()));
+            line(out, METRIC + "_count", labels, snapshot.getCount());
+        }));
+
+        String quantiles = METRIC.replace("_seconds", "_quantile_seconds");
+        out.append("# HELP ").append(quantiles).append(" Latency percentiles since startup, 1% precision.\n");
+        out.append("# TYPE ").append(quantiles).append(" gauge\n");
+        snapshots.forEach((operation, byOutcome) -> byOutcome.forEach((outcome, snapshot) -> {
+            String labels = "operation=\"" + escape(operation) + "\",outcome=\"" + escape(outcome) + "\"";
+            for (double percentile : PERCENTILES) {
+                line(out, quantiles, labels + ",quantile=\"" + quantile(percentile) + "\"",
+                        seconds(snapshot.valueAtPercentile(percentile)));
+            }
+            line(out, quantiles, labels + ",quantile=\"1.0\"", seconds(snapshot.getMaxMicros()));
+        }));
+        return out.toString();
+    }
+
+    private Map<String, Map<String, LatencyHistogram.Snapshot>> snapshots() {
+        Map<String, Map<String, LatencyHistogram.Snapshot>> result = new TreeMap<>();
+        operations.forEach((operation, byOutcome) -> {
+            Map<String, LatencyHistogram.Snapshot> outcomes = new TreeMap<>();
+            byOutcome.forEach((outcome, histogram) -> outcomes.put(outcome, histogram.snapshot()));
+            result.put(operation, outcomes);
+        });
+        return result;
+    }
+
+    private static Map<String, Object> describe(LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("count", snapshot.getCount());
+        stats.put("meanMs", snapshot.getMeanMicros() / 1000.0);
+        stats.put("p50Ms", snapshot.valueAtPercentile(50) / 1000.0);
+        stats.put("p90Ms", snapshot.valueAtPercentile(90) / 1000.0);
+        stats.put("p99Ms", snapshot.valueAtPercentile(99) / 1000.0);
+        stats.put("p999Ms", snapshot.valueAtPercentile(99.9) / 1000.0);
+        stats.put("maxMs", snapshot.getMaxMicros() / 1000.0);
+        return stats;
+    }
+
+    private static void line(StringBuilder out, String name, String labels, Object value) {
+        out.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String seconds(long micros) {
+        return BigDecimal.valueOf(micros, 6).stripTrailingZeros().toPlainString();
+    }
+
+    private static String quantile(double percentile) {
+        return BigDecimal.valueOf(percentile).movePointLeft(2).stripTrailingZeros().toPlainString();
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
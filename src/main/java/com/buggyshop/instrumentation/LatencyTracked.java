@@ -0,0 +1,23 @@
+package com.buggyshop.instrumentation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records the latency of every call to the annotated (proxied, public) method into the
+ * {@link LatencyRegistry}, tagged by outcome: "success" or the simple name of the exception
+ * that escaped.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LatencyTracked {
+
+    /**
+     * Operation name, e.g. "order.create".
+     */
+    String value();
+}
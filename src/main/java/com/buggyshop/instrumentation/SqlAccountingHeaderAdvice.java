@@ -0,0 +1,45 @@
+package com.buggyshop.instrumentation;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the request's SQL counters as X-SQL-* response headers (non-prod only, see
+ * buggyshop.sql-accounting.response-headers). Headers must be set before the body is
+ * written, so they cover statements issued up to that point; lazy loading triggered
+ * while serializing the body only shows up in the aggregates.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "buggyshop.sql-accounting.response-headers", havingValue = "true")
+@RequiredArgsConstructor
+public class SqlAccountingHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    private final SqlAccountingRegistry registry;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlRequestContext context = SqlRequestContext.current();
+        if (context != null) {
+            response.getHeaders().set("X-SQL-Statements", Long.toString(context.statements));
+            response.getHeaders().set("X-SQL-Time-Ms", String.format("%.3f", context.jdbcNanos / 1_000_000.0));
+            response.getHeaders().set("X-SQL-Rows", Long.toString(context.rows));
+            response.getHeaders().set("X-SQL-N-Plus-One",
+                    Integer.toString(context.repeatedSignatures(registry.getNPlusOneThreshold()).size()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,73 @@
+package com.buggyshop.instrumentation;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * datasource-proxy listener feeding {@link SqlRequestContext}: one statement per execution
+ * (a JDBC batch counts once), wall time between before/after, and rows as successful
+ * ResultSet.next() calls.
+ */
+public class SqlAccountingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlRequestContext context = SqlRequestContext.current();
+        if (context != null) {
+            context.queryStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlRequestContext context = SqlRequestContext.current();
+        if (context == null) {
+            return;
+        }
+
+        context.statements++;
+        context.jdbcNanos += System.nanoTime() - context.queryStartNanos;
+        for (QueryInfo queryInfo : queryInfoList) {
+            context.statementsBySignature.merge(signature(queryInfo.getQuery()), 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlRequestContext context = SqlRequestContext.current();
+            if (context != null) {
+                context.rows++;
+            }
+        }
+    }
+
+    /**
+     * Statement text with literals and IN-list lengths normalized away, so repeated executions
+     * of "the same" query share one signature.
+     */
+    static String signature(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?...)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
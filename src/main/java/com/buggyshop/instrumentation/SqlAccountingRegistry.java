@@ -0,0 +1,164 @@
+package com.buggyshop.instrumentation;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolling per-endpoint SQL aggregates: a ring of one-minute buckets covering the last
+ * buggyshop.sql-accounting.window-minutes. Each finished request is folded into the bucket
+ * for the current minute; reads merge the buckets still inside the window.
+ */
+@Component
+public class SqlAccountingRegistry {
+
+    private static final int MAX_SIGNATURES_PER_BUCKET = 50;
+
+    private final Map<String, EndpointWindow> endpoints = new ConcurrentHashMap<>();
+    private final int windowMinutes;
+    private final int nPlusOneThreshold;
+
+    public SqlAccountingRegistry(@Value("${buggyshop.sql-accounting.window-minutes:15}") int windowMinutes,
+                                 @Value("${buggyshop.sql-accounting.n-plus-one-threshold:3}") int nPlusOneThreshold) {
+        this.windowMinutes = Math.max(1, windowMinutes);
+        this.nPlusOneThreshold = Math.max(2, nPlusOneThreshold);
+    }
+
+    public int getNPlusOneThreshold() {
+        return nPlusOneThreshold;
+    }
+
+    void record(String endpoint, SqlRequestContext context) {
+        Map<String, Integer> repeated = context.repeatedSignatures(nPlusOneThreshold);
+        endpoints.computeIfAbsent(endpoint, e -> new EndpointWindow(windowMinutes))
+                .record(currentMinute(), context, repeated);
+    }
+
+    public Map<String, Object> snapshot() {
+        long minute = currentMinute();
+        Map<String, Object> byEndpoint = new LinkedHashMap<>();
+
+        endpoints.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Map<String, Object> stats = entry.getValue().aggregate(minute);
+                    if (stats != null) {
+                        byEndpoint.put(entry.getKey(), stats);
+                    }
+                });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("windowMinutes", windowMinutes);
+        result.put("nPlusOneThreshold", nPlusOneThreshold);
+        result.put("endpoints", byEndpoint);
+        return result;
+    }
+
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+
+    private static final class EndpointWindow {
+        private final Bucket[] buckets;
+
+        EndpointWindow(int minutes) {
+            this.buckets = new Bucket[minutes];
+        }
+
+        synchronized void record(long minute, SqlRequestContext context, Map<String, Integer> repeated) {
+            int idx = (int) (minute % buckets.length);
+            if (buckets[idx] == null || buckets[idx].minute != minute) {
+                buckets[idx] = new Bucket(minute);
+            }
+            Bucket bucket = buckets[idx];
+
+            bucket.requests++;
+            bucket.statements += context.statements;
+            bucket.maxStatements = Math.max(bucket.maxStatements, context.statements);
+            bucket.jdbcNanos += context.jdbcNanos;
+            bucket.rows += context.rows;
+            repeated.forEach((signature, count) -> {
+                if (bucket.nPlusOne.size() < MAX_SIGNATURES_PER_BUCKET || bucket.nPlusOne.containsKey(signature)) {
+                    long[] seen = bucket.nPlusOne.computeIfAbsent(signature, s -> new long[2]);
+                    seen[0]++;
+                    seen[1] = Math.max(seen[1], count);
+                }
+            });
+        }
+
+        synchronized Map<String, Object> aggregate(long minute) {
+            long requests = 0;
+            long statements = 0;
+            long maxStatements = 0;
+            long jdbcNanos = 0;
+            long rows = 0;
+            Map<String, long[]> nPlusOne = new HashMap<>();
+
+            for (Bucket bucket : buckets) {
+                if (bucket == null || minute - bucket.minute >= buckets.length) {
+                    continue;
+                }
+                requests += bucket.requests;
+                statements += bucket.statements;
+                maxStatements = Math.max(maxStatements, bucket.maxStatements);
+                jdbcNanos += bucket.jdbcNanos;
+                rows += bucket.rows;
+                bucket.nPlusOne.forEach((signature, seen) -> {
+                    long[] total = nPlusOne.computeIfAbsent(signature, s -> new long[2]);
+                    total[0] += seen[0];
+                    total[1] = Math.max(total[1], seen[1]);
+                });
+            }
+
+            if (requests == 0) {
+                return null;
+            }
+
+            List<Map<String, Object>> signatures = new ArrayList<>();
+            nPlusOne.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed())
+                    .forEach(e -> {
+                        Map<String, Object> signature = new LinkedHashMap<>();
+                        signature.put("sql", e.getKey());
+                        signature.put("requests", e.getValue()[0]);
+                        signature.put("maxRepeatsPerRequest", e.getValue()[1]);
+                        signatures.add(signature);
+                    });
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", requests);
+            stats.put("statements", statements);
+            stats.put("avgStatementsPerRequest", (double) statements / requests);
+            stats.put("maxStatementsPerRequest", maxStatements);
+            stats.put("jdbcTimeMs", jdbcNanos / 1_000_000.0);
+            stats.put("avgJdbcTimeMsPerRequest", jdbcNanos / 1_000_000.0 / requests);
+            stats.put("rowsFetched", rows);
+            stats.put("avgRowsPerRequest", (double) rows / requests);
+            stats.put("nPlusOneSignatures", signatures);
+            return stats;
+        }
+    }
+
+    private static final class Bucket {
+        private final long minute;
+        private long requests;
+        private long statements;
+        private long maxStatements;
+        private long jdbcNanos;
+        private long rows;
+        /** signature -> [requests in which it repeated, max repeats in one request] */
+        private final Map<String, long[]> nPlusOne = new HashMap<>();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.buggyshop.instrumentation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQL counters for the HTTP request running on the current thread. JDBC calls made on other
+ * threads (schedulers, the payment executor) are not attributed to any request.
+ */
+final class SqlRequestContext {
+
+    private static final ThreadLocal<SqlRequestContext> CURRENT = new ThreadLocal<>();
+
+    long statements;
+    long jdbcNanos;
+    long rows;
+    final Map<String, Integer> statementsBySignature = new HashMap<>();
+    long queryStartNanos;
+
+    static SqlRequestContext begin() {
+        SqlRequestContext context = new SqlRequestContext();
+        CURRENT.set(context);
+        return context;
+    }
+
+    static SqlRequestContext current() {
+        return CURRENT.get();
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Signatures executed at least {@code threshold} times in this request: the N+1 suspects.
+     */
+    Map<String, Integer> repeatedSignatures(int threshold) {
+        Map<String, Integer> repeated = new HashMap<>();
+        statementsBySignature.forEach((signature, count) -> {
+            if (count >= threshold) {
+                repeated.put(signature, count);
+            }
+        });
+        return repeated;
+    }
+}
@@ -2,6 +2,15 @@ package com.buggyshop.repository;
 
 import com.buggyshop.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+
+    /**
+     * [productId, quantity] for every line of the cart, in the order they were added.
+     */
+    @Query("SELECT i.product.id, i.quantity FROM CartItem i WHERE i.cart.id = :cartId ORDER BY i.id")
+    List<Object[]> findLinesByCartId(Long cartId);
 }
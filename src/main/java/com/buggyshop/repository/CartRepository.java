@@ -2,10 +2,38 @@ package com.buggyshop.repository;
 
 import com.buggyshop.entity.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
     Optional<Cart> findBySessionId(String sessionId);
+
+    /**
+     * Cart with its lines, their products and the products' inventory in one query, for checkout.
+     */
+    @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.items i LEFT JOIN FETCH i.product p " +
+           "LEFT JOIN FETCH p.inventory WHERE c.id = :id")
+    Optional<Cart> findWithItemsById(Long id);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.sessionId = :sessionId ORDER BY c.id")
+    List<Long> findIdsBySessionId(String sessionId);
+
+    @Query("SELECT c.id FROM Cart c WHERE c.user.id = :userId ORDER BY c.id")
+    List<Long> findIdsByUserId(Long userId);
+
+    /**
+     * Locks the carts in id order, so concurrent cart writers never deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.id IN :ids ORDER BY c.id")
+    List<Cart> findAllByIdInWithLock(Collection<Long> ids);
+
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.id IN :ids")
+    List<Cart> findAllWithItemsByIdIn(Collection<Long> ids);
 }
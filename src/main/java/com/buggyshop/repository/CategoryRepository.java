@@ -2,6 +2,15 @@ package com.buggyshop.repository;
 
 import com.buggyshop.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    /**
+     * [id, parentId, name, description] for every category, used to build the category tree.
+     */
+    @Query("SELECT c.id, p.id, c.name, c.description FROM Category c LEFT JOIN c.parent p")
+    List<Object[]> findAllTreeRows();
 }
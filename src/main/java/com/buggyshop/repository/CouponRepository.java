@@ -2,7 +2,11 @@ package com.buggyshop.repository;
 
 import com.buggyshop.entity.Coupon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -10,4 +14,25 @@ import java.util.Optional;
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
     Optional<Coupon> findByCode(String code);
     List<Coupon> findByExpiresAtAfter(LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Coupon c WHERE c.id = :id")
+    Optional<Coupon> findByIdWithLock(Long id);
+
+    /**
+     * Counts one use in a single conditional statement; returns 0 when the coupon has
+     * expired or reached maxUses, so concurrent redemptions can never overspend it.
+     */
+    @Modifying
+    @Query("UPDATE Coupon c SET c.usedCount = c.usedCount + 1 " +
+           "WHERE c.id = :id AND (c.maxUses IS NULL OR c.usedCount < c.maxUses) " +
+           "AND (c.expiresAt IS NULL OR c.expiresAt > :now)")
+    int redeem(Long id, LocalDateTime now);
+
+    /**
+     * Ids of coupons whose redemptions are spread over shards: unlimited ones and those
+     * with at least minMaxUses uses.
+     */
+    @Query("SELECT c.id FROM Coupon c WHERE c.maxUses IS NULL OR c.maxUses >= :minMaxUses")
+    List<Long> findShardedIds(int minMaxUses);
 }
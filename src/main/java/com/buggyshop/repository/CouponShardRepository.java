@@ -0,0 +1,28 @@
+package com.buggyshop.repository;
+
+import com.buggyshop.entity.CouponShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+
+public interface CouponShardRepository extends JpaRepository<CouponShard, Long> {
+
+    long countByCouponId(Long couponId);
+
+    /**
+     * Takes one use from the shard if it has any left; returns 0 when the shard is exhausted
+     * or does not exist.
+     */
+    @Modifying
+    @Query("UPDATE CouponShard s SET s.used = s.used + 1 " +
+           "WHERE s.couponId = :couponId AND s.shard = :shard AND (s.allotment IS NULL OR s.used < s.allotment)")
+    int redeem(Long couponId, int shard);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CouponShard s WHERE s.couponId = :couponId ORDER BY s.shard")
+    List<CouponShard> findByCouponIdWithLock(Long couponId);
+}
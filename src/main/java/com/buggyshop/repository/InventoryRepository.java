@@ -3,9 +3,11 @@ package com.buggyshop.repository;
 import com.buggyshop.entity.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +17,21 @@ public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     @Query("SELECT i FROM Inventory i WHERE i.productId = :productId")
     Optional<Inventory> findByProductIdWithLock(Long productId);
 
-    @Query("SELECT i FROM Inventory i WHERE (i.quantity - i.reserved) < 10")
-    List<Inventory> findLowStock();
+    /**
+     * [productId, available, reorderThreshold] for every inventory row.
+     */
+    @Query("SELECT i.productId, (i.quantity - i.reserved), i.reorderThreshold FROM Inventory i")
+    List<Object[]> findStockLevels();
+
+    @Query("SELECT i.productId, (i.quantity - i.reserved), i.reorderThreshold FROM Inventory i " +
+           "WHERE i.productId IN :productIds")
+    List<Object[]> findStockLevelsByProductIds(Collection<Long> productIds);
+
+    /**
+     * Bulk update rather than load-and-save, so it never races the in-memory engine's
+     * write-behind flush on the row version.
+     */
+    @Modifying
+    @Query("UPDATE Inventory i SET i.reorderThreshold = :reorderThreshold WHERE i.productId = :productId")
+    int updateReorderThreshold(Long productId, Integer reorderThreshold);
 }
@@ -1,17 +1,127 @@
 package com.buggyshop.repository;
 
+import com.buggyshop.dto.OrderSummary;
 import com.buggyshop.entity.Order;
 import com.buggyshop.entity.OrderStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Source-of-truth aggregates per product for sales reconciliation:
+     * [productId, timesOrdered, unitsSold, revenue] over orders in the given statuses.
+     */
+    String SALES_AGGREGATES = "SELECT i.product.id, COUNT(DISTINCT o.id), SUM(i.quantity), SUM(i.subtotal) " +
+            "FROM Order o JOIN o.items i WHERE o.status IN :statuses ";
+
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(OrderStatus status);
 
     @Query("SELECT o FROM Order o WHERE o.createdAt BETWEEN :from AND :to")
     List<Order> findByDateRange(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * The given orders that are still in the given status, with their lines.
+     */
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids AND o.status = :status")
+    List<Order> findWithItemsByIdInAndStatus(Collection<Long> ids, OrderStatus status);
+
+    /**
+     * [id, createdAt] of orders in the given status after the given id, in id order. The
+     * Pageable only caps the row count (page 0).
+     */
+    @Query("SELECT o.id, o.createdAt FROM Order o WHERE o.status = :status AND o.id > :id ORDER BY o.id")
+    List<Object[]> findCreatedAtByStatusAfterId(OrderStatus status, Long id, Pageable limit);
+
+    /**
+     * [id, paymentId] of orders in the given status that have a recorded charge, oldest first.
+     * The Pageable only caps the row count (page 0).
+     */
+    @Query("SELECT o.id, o.paymentId FROM Order o WHERE o.status = :status AND o.paymentId IS NOT NULL " +
+           "ORDER BY o.paymentStartedAt")
+    List<Object[]> findChargedByStatus(OrderStatus status, Pageable limit);
+
+    /**
+     * Ids of orders in the given status without a recorded charge whose payment started
+     * before the cutoff, oldest first. The Pageable only caps the row count (page 0).
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status AND o.paymentId IS NULL " +
+           "AND o.paymentStartedAt < :before ORDER BY o.paymentStartedAt")
+    List<Long> findUnchargedByStatusStartedBefore(OrderStatus status, LocalDateTime before, Pageable limit);
+
+    /**
+     * A user's orders as summaries; the user is matched on the user_id column, never loaded.
+     */
+    @Query(value = "SELECT new com.buggyshop.dto.OrderSummary(" +
+                   "o.id, o.status, o.total, o.discount, o.finalTotal, SIZE(o.items), o.createdAt, o.paidAt) " +
+                   "FROM Order o WHERE o.user.id = :userId",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<OrderSummary> findSummariesByUserId(Long userId, Pageable pageable);
+
+    /**
+     * Everything an order detail view needs in one statement: one row per order line
+     * (a single row with null item columns for an order without lines).
+     */
+    @Query("SELECT o.id AS id, o.user.id AS userId, o.status AS status, o.total AS total, " +
+           "o.discount AS discount, o.finalTotal AS finalTotal, o.paymentId AS paymentId, " +
+           "o.paymentFailureReason AS paymentFailureReason, o.refundId AS refundId, " +
+           "o.createdAt AS createdAt, o.paidAt AS paidAt, o.shippedAt AS shippedAt, " +
+           "o.deliveredAt AS deliveredAt, o.cancelledAt AS cancelledAt, " +
+           "a.street AS street, a.city AS city, a.state AS state, a.zipCode AS zipCode, a.country AS country, " +
+           "p.id AS productId, p.name AS productName, p.sku AS sku, " +
+           "i.quantity AS quantity, i.price AS price, i.subtotal AS subtotal " +
+           "FROM Order o LEFT JOIN o.shippingAddress a LEFT JOIN o.items i LEFT JOIN i.product p " +
+           "WHERE o.id = :orderId ORDER BY i.id")
+    List<OrderDetailRow> findDetailRows(Long orderId);
+
+    interface OrderDetailRow {
+        Long getId();
+        Long getUserId();
+        OrderStatus getStatus();
+        BigDecimal getTotal();
+        BigDecimal getDiscount();
+        BigDecimal getFinalTotal();
+        String getPaymentId();
+        String getPaymentFailureReason();
+        String getRefundId();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getPaidAt();
+        LocalDateTime getShippedAt();
+        LocalDateTime getDeliveredAt();
+        LocalDateTime getCancelledAt();
+        String getStreet();
+        String getCity();
+        String getState();
+        String getZipCode();
+        String getCountry();
+        Long getProductId();
+        String getProductName();
+        String getSku();
+        Integer getQuantity();
+        BigDecimal getPrice();
+        BigDecimal getSubtotal();
+    }
+
+    @Query(SALES_AGGREGATES + "GROUP BY i.product.id")
+    List<Object[]> aggregateSalesByProduct(Collection<OrderStatus> statuses);
+
+    @Query(SALES_AGGREGATES + "AND i.product.id = :productId GROUP BY i.product.id")
+    List<Object[]> aggregateSalesForProduct(Long productId, Collection<OrderStatus> statuses);
+
+    /**
+     * [orderId, paidAt, createdAt, status, categoryId-or-null, units, revenue] per order and
+     * category over orders in the given statuses, in order id order.
+     */
+    @Query("SELECT o.id, o.paidAt, o.createdAt, o.status, c.id, SUM(i.quantity), SUM(i.subtotal) " +
+           "FROM Order o JOIN o.items i JOIN i.product p LEFT JOIN p.category c " +
+           "WHERE o.status IN :statuses GROUP BY o.id, o.paidAt, o.createdAt, o.status, c.id ORDER BY o.id")
+    List<Object[]> aggregateSalesByOrderAndCategory(Collection<OrderStatus> statuses);
 }
@@ -0,0 +1,63 @@
+package com.buggyshop.repository;
+
+import com.buggyshop.entity.ProductRatingStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductRatingStatsRepository extends JpaRepository<ProductRatingStats, Long> {
+
+    /**
+     * Adds (delta = 1) or removes (delta = -1) one review with the given rating.
+     * Returns 0 if the product has no stats row yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductRatingStats s SET " +
+           "s.reviewCount = s.reviewCount + :delta, " +
+           "s.ratingSum = s.ratingSum + :delta * :rating, " +
+           "s.stars1 = s.stars1 + CASE WHEN :rating = 1 THEN :delta ELSE 0 END, " +
+           "s.stars2 = s.stars2 + CASE WHEN :rating = 2 THEN :delta ELSE 0 END, " +
+           "s.stars3 = s.stars3 + CASE WHEN :rating = 3 THEN :delta ELSE 0 END, " +
+           "s.stars4 = s.stars4 + CASE WHEN :rating = 4 THEN :delta ELSE 0 END, " +
+           "s.stars5 = s.stars5 + CASE WHEN :rating = 5 THEN :delta ELSE 0 END " +
+           "WHERE s.productId = :productId")
+    int applyRating(Long productId, int rating, int delta);
+
+    /**
+     * Min/max cannot be decremented, so they are re-derived from the star histogram.
+     */
+    @Modifying
+    @Query("UPDATE ProductRatingStats s SET " +
+           "s.minRating = CASE WHEN s.stars1 > 0 THEN 1 WHEN s.stars2 > 0 THEN 2 WHEN s.stars3 > 0 THEN 3 " +
+           "WHEN s.stars4 > 0 THEN 4 WHEN s.stars5 > 0 THEN 5 ELSE NULL END, " +
+           "s.maxRating = CASE WHEN s.stars5 > 0 THEN 5 WHEN s.stars4 > 0 THEN 4 WHEN s.stars3 > 0 THEN 3 " +
+           "WHEN s.stars2 > 0 THEN 2 WHEN s.stars1 > 0 THEN 1 ELSE NULL END " +
+           "WHERE s.productId = :productId")
+    int refreshMinMax(Long productId);
+
+    /**
+     * Creates an all-zero stats row for the product; returns 0 if it already exists (or a
+     * concurrent transaction created it first, after waiting for that transaction to finish).
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO product_rating_stats (product_id, review_count, rating_sum, stars1, stars2, stars3, stars4, stars5) " +
+           "VALUES (:productId, 0, 0, 0, 0, 0, 0, 0) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductRatingStats s WHERE s.productId = :productId")
+    Optional<ProductRatingStats> findByProductIdWithLock(Long productId);
+
+    /**
+     * [productId, productName, price, stats-or-null] for every product, in one query.
+     */
+    @Query("SELECT p.id, p.name, p.price, s FROM Product p " +
+           "LEFT JOIN ProductRatingStats s ON s.productId = p.id ORDER BY p.id")
+    List<Object[]> findAllProductsWithStats();
+}
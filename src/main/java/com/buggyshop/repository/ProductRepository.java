@@ -1,16 +1,86 @@
 package com.buggyshop.repository;
 
+import com.buggyshop.dto.ProductResponse;
 import com.buggyshop.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByCategoryId(Long categoryId, Pageable pageable);
+
+    /**
+     * Builds {@link ProductResponse} straight from one query: category, inventory and the
+     * maintained rating stats are joined, so a page costs the same number of statements
+     * whatever its size.
+     */
+    String RESPONSE_CONSTRUCTOR = "new com.buggyshop.dto.ProductResponse(" +
+            "p.id, p.name, p.description, p.price, p.sku, c.id, c.name, (i.quantity - i.reserved), " +
+            "CASE WHEN s.reviewCount > 0 THEN CAST(s.ratingSum AS Double) / s.reviewCount ELSE NULL END, " +
+            "CAST(COALESCE(s.reviewCount, 0) AS Integer))";
+
+    String RESPONSE_FROM = " FROM Product p LEFT JOIN p.category c LEFT JOIN p.inventory i " +
+            "LEFT JOIN ProductRatingStats s ON s.productId = p.id";
+
+    String RESPONSE_SELECT = "SELECT " + RESPONSE_CONSTRUCTOR + RESPONSE_FROM;
+
+    @Query(value = RESPONSE_SELECT,
+           countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductResponse> findAllResponses(Pageable pageable);
+
+    @Query(RESPONSE_SELECT + " WHERE p.id = :id")
+    Optional<ProductResponse> findResponseById(Long id);
+
+    /**
+     * Keyset ("seek") pages: rows strictly after (sort value, id) of the previous page's last
+     * row, in (sort value, id) order. The Pageable only caps the row count (page 0); with a
+     * List return type no count query is issued.
+     */
+    @Query(RESPONSE_SELECT + " WHERE p.id > :id ORDER BY p.id")
+    List<ProductResponse> findResponsesAfterId(Long id, Pageable limit);
+
+    @Query(RESPONSE_SELECT + " WHERE p.name > :name OR (p.name = :name AND p.id > :id) ORDER BY p.name, p.id")
+    List<ProductResponse> findResponsesAfterName(String name, Long id, Pageable limit);
+
+    @Query(RESPONSE_SELECT + " WHERE p.price > :price OR (p.price = :price AND p.id > :id) ORDER BY p.price, p.id")
+    List<ProductResponse> findResponsesAfterPrice(BigDecimal price, Long id, Pageable limit);
+
+    /**
+     * createdAt is not part of {@link ProductResponse}, so each row is [response, createdAt].
+     */
+    @Query("SELECT " + RESPONSE_CONSTRUCTOR + ", p.createdAt" + RESPONSE_FROM +
+           " WHERE p.createdAt > :createdAt OR (p.createdAt = :createdAt AND p.id > :id) ORDER BY p.createdAt, p.id")
+    List<Object[]> findResponsesAfterCreatedAt(LocalDateTime createdAt, Long id, Pageable limit);
+
+    @Query(RESPONSE_SELECT + " WHERE p.id IN :ids")
+    List<ProductResponse> findResponsesByIds(Collection<Long> ids);
+
+    /**
+     * Products in any of the given categories; with a category subtree's ids this pages
+     * through the whole subtree with one IN predicate.
+     */
+    @Query(value = RESPONSE_SELECT + " WHERE c.id IN :categoryIds",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.category.id IN :categoryIds")
+    Page<ProductResponse> findResponsesByCategoryIds(Collection<Long> categoryIds, Pageable pageable);
+
+    /**
+     * [id, name, description, sku] for every product, used to build the search index.
+     */
+    @Query("SELECT p.id, p.name, p.description, p.sku FROM Product p")
+    List<Object[]> findAllSearchFields();
 
     @Query("SELECT p FROM Product p LEFT JOIN FETCH p.inventory")
     List<Product> findAllWithInventory();
+
+    /**
+     * [productId, categoryId-or-null] for the given products.
+     */
+    @Query("SELECT p.id, c.id FROM Product p LEFT JOIN p.category c WHERE p.id IN :ids")
+    List<Object[]> findCategoryIds(Collection<Long> ids);
 }
@@ -0,0 +1,51 @@
+package com.buggyshop.repository;
+
+import com.buggyshop.entity.ProductSalesStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductSalesStatsRepository extends JpaRepository<ProductSalesStats, Long> {
+
+    /**
+     * Adds (sign = 1) or removes (sign = -1) one order's lines for the product; revenue is
+     * passed with the same sign already applied.
+     * Returns 0 if the product has no stats row yet.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ProductSalesStats s SET " +
+           "s.timesOrdered = s.timesOrdered + :sign, " +
+           "s.unitsSold = s.unitsSold + :sign * :units, " +
+           "s.revenue = s.revenue + :revenue " +
+           "WHERE s.productId = :productId")
+    int applySale(Long productId, int sign, long units, BigDecimal revenue);
+
+    /**
+     * Creates an all-zero stats row for the product; returns 0 if it already exists (or a
+     * concurrent transaction created it first, after waiting for that transaction to finish).
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO product_sales_stats (product_id, times_ordered, units_sold, revenue) " +
+           "VALUES (:productId, 0, 0, 0) ON CONFLICT DO NOTHING")
+    int insertIfAbsent(Long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ProductSalesStats s WHERE s.productId = :productId")
+    Optional<ProductSalesStats> findByProductIdWithLock(Long productId);
+
+    /**
+     * [productId, productName, salesStats, ratingStats-or-null] for every product that has
+     * sold at least once, in one query.
+     */
+    @Query("SELECT p.id, p.name, s, r FROM ProductSalesStats s JOIN s.product p " +
+           "LEFT JOIN ProductRatingStats r ON r.productId = p.id " +
+           "WHERE s.timesOrdered > 0 ORDER BY p.id")
+    List<Object[]> findSoldProductsWithStats();
+}
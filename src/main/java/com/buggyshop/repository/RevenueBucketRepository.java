@@ -0,0 +1,55 @@
+package com.buggyshop.repository;
+
+import com.buggyshop.entity.BucketGranularity;
+import com.buggyshop.entity.OrderStatus;
+import com.buggyshop.entity.RevenueBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RevenueBucketRepository extends JpaRepository<RevenueBucket, RevenueBucket.Key> {
+
+    /**
+     * Adds the deltas to one bucket. Returns 0 if the bucket has no row yet.
+     */
+    @Modifying
+    @Query("UPDATE RevenueBucket b SET " +
+           "b.orderCount = b.orderCount + :orders, " +
+           "b.unitsSold = b.unitsSold + :units, " +
+           "b.revenue = b.revenue + :revenue " +
+           "WHERE b.id.granularity = :granularity AND b.id.bucketStart = :bucketStart " +
+           "AND b.id.categoryId = :categoryId AND b.id.status = :status")
+    int applyDelta(BucketGranularity granularity, LocalDateTime bucketStart, Long categoryId, OrderStatus status,
+                   long orders, long units, BigDecimal revenue);
+
+    /**
+     * Creates the bucket with the given values; returns 0 if a concurrent transaction
+     * created it first (after waiting for that transaction to finish), in which case
+     * {@link #applyDelta} will now find it.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value =
+           "INSERT INTO revenue_buckets (granularity, bucket_start, category_id, status, order_count, units_sold, revenue) " +
+           "VALUES (:granularity, :bucketStart, :categoryId, :status, :orders, :units, :revenue) " +
+           "ON CONFLICT DO NOTHING")
+    int insertIfAbsent(String granularity, LocalDateTime bucketStart, Long categoryId, String status,
+                       long orders, long units, BigDecimal revenue);
+
+    /**
+     * [categoryId, status, orderCount, unitsSold, revenue] summed over the buckets of one
+     * granularity starting in [from, to).
+     */
+    @Query("SELECT b.id.categoryId, b.id.status, SUM(b.orderCount), SUM(b.unitsSold), SUM(b.revenue) " +
+           "FROM RevenueBucket b WHERE b.id.granularity = :granularity " +
+           "AND b.id.bucketStart >= :from AND b.id.bucketStart < :to " +
+           "GROUP BY b.id.categoryId, b.id.status")
+    List<Object[]> sumByCategoryAndStatus(BucketGranularity granularity, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT b FROM RevenueBucket b WHERE b.id.granularity = :granularity AND b.id.categoryId = :categoryId " +
+           "AND b.id.bucketStart >= :from AND b.id.bucketStart < :to ORDER BY b.id.bucketStart, b.id.status")
+    List<RevenueBucket> findSeries(BucketGranularity granularity, Long categoryId, LocalDateTime from, LocalDateTime to);
+}
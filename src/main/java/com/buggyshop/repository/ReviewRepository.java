@@ -12,4 +12,19 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.product.id = :productId")
     Double getAverageRating(Long productId);
+
+    /**
+     * Source-of-truth aggregates per product for rating reconciliation:
+     * [productId, count, sum, min, max, stars1..stars5].
+     */
+    String RATING_AGGREGATES = "SELECT r.product.id, COUNT(r), SUM(r.rating), MIN(r.rating), MAX(r.rating), " +
+            "SUM(CASE WHEN r.rating = 1 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 2 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 3 THEN 1 ELSE 0 END), SUM(CASE WHEN r.rating = 4 THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN r.rating = 5 THEN 1 ELSE 0 END) FROM Review r ";
+
+    @Query(RATING_AGGREGATES + "GROUP BY r.product.id")
+    List<Object[]> aggregateRatingsByProduct();
+
+    @Query(RATING_AGGREGATES + "WHERE r.product.id = :productId GROUP BY r.product.id")
+    List<Object[]> aggregateRatingsForProduct(Long productId);
 }
@@ -0,0 +1,32 @@
+package com.buggyshop.scheduled;
+
+import com.buggyshop.service.CouponRedemptionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically folds sharded coupon redemption counts back into the coupons and re-allots
+ * the remaining uses of capped coupons across their shards. Coupons that just became
+ * eligible for sharding get their shard rows on the first run after.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CouponShardReconciler {
+
+    private final CouponRedemptionService couponRedemptionService;
+
+    @Scheduled(initialDelayString = "${buggyshop.coupons.reconcile-interval-ms:10000}",
+               fixedDelayString = "${buggyshop.coupons.reconcile-interval-ms:10000}")
+    public void reconcile() {
+        for (Long couponId : couponRedemptionService.findShardedCouponIds()) {
+            try {
+                couponRedemptionService.reconcile(couponId);
+            } catch (RuntimeException e) {
+                log.warn("Coupon shard reconciliation failed for coupon {}: {}", couponId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.buggyshop.scheduled;
+
+import com.buggyshop.service.ReviewService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds product rating stats from the reviews table.
+ *
+ * Runs once on startup (reviews seeded by DataInitializer bypass ReviewService) and then
+ * nightly, repairing any product whose stored aggregates drifted from the source rows.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RatingStatsReconciler {
+
+    private final ReviewService reviewService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${buggyshop.ratings.reconcile-cron:0 0 3 * * *}")
+    public void reconcile() {
+        List<Long> drifted = reviewService.findDriftedRatingStats();
+
+        for (Long productId : drifted) {
+            reviewService.repairRatingStats(productId);
+        }
+
+        log.info("Rating stats reconciliation done, repaired {} products", drifted.size());
+    }
+}
@@ -0,0 +1,119 @@
+package com.buggyshop.scheduled;
+
+import com.buggyshop.entity.OrderStatus;
+import com.buggyshop.repository.OrderRepository;
+import com.buggyshop.service.OrderService;
+import com.buggyshop.service.ReservationExpiryWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Cancels PENDING orders whose stock reservation has outlived buggyshop.reservations.ttl.
+ *
+ * Deadlines live in the {@link ReservationExpiryWheel}; OrderService schedules one per new
+ * order, and on startup every PENDING order is loaded by keyset pages. Each tick drains the
+ * due order ids and expires them in transactions of at most batch-size orders, running at
+ * most max-batches-per-tick batches; whatever is left over waits for the next tick. A batch
+ * that loses an optimistic lock race (e.g. a payment starting at the same moment) is retried
+ * order by order.
+ */
+@Component
+@Slf4j
+public class ReservationExpiryJob {
+
+    private final ReservationExpiryWheel wheel;
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final int batchSize;
+    private final int maxBatchesPerTick;
+
+    /**
+     * Due order ids not yet expired. Only touched from the scheduler thread.
+     */
+    private final Queue<Long> due = new ArrayDeque<>();
+
+    public ReservationExpiryJob(ReservationExpiryWheel wheel,
+                                OrderService orderService,
+                                OrderRepository orderRepository,
+                                @Value("${buggyshop.reservations.batch-size:500}") int batchSize,
+                                @Value("${buggyshop.reservations.max-batches-per-tick:20}") int maxBatchesPerTick) {
+        this.wheel = wheel;
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerTick = Math.max(1, maxBatchesPerTick);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPendingOrders() {
+        long lastId = 0;
+        long loaded = 0;
+
+        while (true) {
+            List<Object[]> rows = orderRepository.findCreatedAtByStatusAfterId(
+                    OrderStatus.PENDING, lastId, PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                lastId = (Long) row[0];
+                wheel.schedule(lastId, (LocalDateTime) row[1]);
+            }
+            loaded += rows.size();
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        log.info("Scheduled reservation expiry for {} pending orders (ttl={})", loaded, wheel.getTtl());
+    }
+
+    @Scheduled(fixedDelayString = "${buggyshop.reservations.tick-ms:1000}")
+    public void expireDueReservations() {
+        wheel.advance(due::add);
+        if (due.isEmpty()) {
+            return;
+        }
+
+        int expired = 0;
+        for (int batch = 0; batch < maxBatchesPerTick && !due.isEmpty(); batch++) {
+            List<Long> orderIds = new ArrayList<>(Math.min(batchSize, due.size()));
+            while (orderIds.size() < batchSize && !due.isEmpty()) {
+                orderIds.add(due.poll());
+            }
+            expired += expire(orderIds);
+        }
+
+        if (expired > 0 || !due.isEmpty()) {
+            log.info("Reservation expiry: {} orders cancelled, {} due orders carried over", expired, due.size());
+        }
+    }
+
+    private int expire(List<Long> orderIds) {
+        try {
+            return orderService.expireReservations(orderIds);
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Expiry batch of {} orders hit a concurrent update, retrying one by one", orderIds.size());
+        }
+
+        int expired = 0;
+        for (Long orderId : orderIds) {
+            try {
+                expired += orderService.expireReservations(List.of(orderId));
+            } catch (OptimisticLockingFailureException e) {
+                // Changed state under us; if it went back to PENDING, failPayment rescheduled it
+                log.debug("Order {} changed while expiring its reservation, skipped", orderId);
+            }
+        }
+        return expired;
+    }
+}
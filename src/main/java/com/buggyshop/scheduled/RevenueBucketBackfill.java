@@ -0,0 +1,24 @@
+package com.buggyshop.scheduled;
+
+import com.buggyshop.service.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the revenue buckets from existing orders on startup when the table is empty
+ * (fresh schema with orders seeded by DataInitializer). From then on OrderService keeps
+ * them up to date.
+ */
+@Component
+@RequiredArgsConstructor
+public class RevenueBucketBackfill {
+
+    private final RevenueRollupService revenueRollupService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        revenueRollupService.backfillIfEmpty();
+    }
+}
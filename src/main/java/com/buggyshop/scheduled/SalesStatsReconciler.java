@@ -0,0 +1,41 @@
+package com.buggyshop.scheduled;
+
+import com.buggyshop.service.SalesStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rebuilds product sales stats from the orders and order_items tables.
+ *
+ * Runs once on startup (orders seeded by DataInitializer bypass OrderService) and then
+ * nightly, repairing any product whose stored aggregates drifted from the source rows.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SalesStatsReconciler {
+
+    private final SalesStatsService salesStatsService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    @Scheduled(cron = "${buggyshop.sales-stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcile() {
+        List<Long> drifted = salesStatsService.findDriftedSalesStats();
+
+        for (Long productId : drifted) {
+            salesStatsService.repairSalesStats(productId);
+        }
+
+        log.info("Sales stats reconciliation done, repaired {} products", drifted.size());
+    }
+}
@@ -0,0 +1,305 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.SnapshotGroup;
+import com.buggyshop.entity.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Analytics reports over an {@link AnalyticsSnapshot}: a columnar copy of products, reviews
+ * and order lines taken every buggyshop.analytics-snapshot.refresh-interval-ms.
+ *
+ * The snapshot is read through scalar projections in one read-only transaction (so it comes
+ * from the analytics pool) and swapped in atomically; queries run on a dedicated fork-join
+ * pool and never touch the database. Results are as old as the snapshot, see {@link #getInfo}.
+ *
+ * With buggyshop.analytics-snapshot.persist-dir set, every snapshot is also written to a
+ * memory-mapped file there, and startup loads that file instead of re-reading the tables;
+ * the next scheduled refresh then brings it up to date.
+ */
+@Service
+@Slf4j
+public class AnalyticsEngine {
+
+    public enum Dimension { PRODUCT, CATEGORY, STATUS, DAY }
+
+    private static final String SNAPSHOT_FILE = "analytics-snapshot.bin";
+
+    private static final String PRODUCTS_QUERY =
+            "SELECT p.id, p.name, c.id FROM Product p LEFT JOIN p.category c ORDER BY p.id";
+    private static final String REVIEWS_QUERY =
+            "SELECT r.product.id, r.rating FROM Review r";
+    private static final String LINES_QUERY =
+            "SELECT oi.product.id, oi.quantity, oi.subtotal, o.status, o.createdAt FROM OrderItem oi JOIN oi.order o";
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+    private final int fetchSize;
+    private final Path persistFile;
+
+    private volatile AnalyticsSnapshot snapshot = AnalyticsSnapshot.empty();
+    private volatile String source = "empty";
+
+    public AnalyticsEngine(EntityManager entityManager,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${buggyshop.analytics-snapshot.parallelism:0}") int parallelism,
+                           @Value("${buggyshop.analytics-snapshot.fetch-size:5000}") int fetchSize,
+                           @Value("${buggyshop.analytics-snapshot.persist-dir:}") String persistDir) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.fetchSize = fetchSize;
+        this.persistFile = StringUtils.hasText(persistDir) ? Path.of(persistDir).resolve(SNAPSHOT_FILE) : null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadOnStartup() {
+        if (persistFile != null && Files.exists(persistFile)) {
+            try {
+                long start = System.nanoTime();
+                AnalyticsSnapshot loaded = AnalyticsSnapshot.readFrom(persistFile);
+                snapshot = loaded;
+                source = "file";
+                log.info("Analytics snapshot loaded from {} in {} ms ({} reviews, {} order lines, taken {})",
+                        persistFile, (System.nanoTime() - start) / 1_000_000, loaded.reviewCount(),
+                        loaded.lineCount(), Instant.ofEpochMilli(loaded.takenAt()));
+                return;
+            } catch (IOException e) {
+                log.warn("Ignoring analytics snapshot file: {}", e.getMessage());
+            }
+        }
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${buggyshop.analytics-snapshot.refresh-interval-ms:300000}",
+               initialDelayString = "${buggyshop.analytics-snapshot.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        long start = System.nanoTime();
+        AnalyticsSnapshot fresh = readOnlyTransaction.execute(status -> read());
+        snapshot = fresh;
+        source = "database";
+        log.info("Analytics snapshot taken in {} ms: {} products, {} reviews, {} order lines",
+                (System.nanoTime() - start) / 1_000_000, fresh.productCount(), fresh.reviewCount(), fresh.lineCount());
+
+        if (persistFile != null) {
+            try {
+                Files.createDirectories(persistFile.getParent());
+                fresh.writeTo(persistFile);
+            } catch (IOException e) {
+                log.warn("Could not persist analytics snapshot to {}: {}", persistFile, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public Map<String, Object> getInfo() {
+        AnalyticsSnapshot current = snapshot;
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("takenAt", current.takenAt() > 0 ? Instant.ofEpochMilli(current.takenAt()) : null);
+        info.put("source", source);
+        info.put("products", current.productCount());
+        info.put("reviews", current.reviewCount());
+        info.put("orderLines", current.lineCount());
+        info.put("parallelism", pool.getParallelism());
+        return info;
+    }
+
+    /**
+     * Same report as AnalyticsService.getProductRatingsReport, from the snapshot.
+     */
+    public List<Map<String, Object>> getProductRatingsReport() {
+        AnalyticsSnapshot current = snapshot;
+        long[] histogram = current.reviewHistogram(pool);
+
+        List<Map<String, Object>> report = new ArrayList<>(current.productCount());
+        for (int product = 0; product < current.productCount(); product++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("productId", current.productId(product));
+            row.put("productName", current.productName(product));
+
+            long reviews = 0;
+            long ratingSum = 0;
+            Integer minRating = null;
+            Integer maxRating = null;
+            Map<Integer, Long> distribution = new LinkedHashMap<>();
+            for (int star = 1; star <= 5; star++) {
+                long count = histogram[product * 5 + star - 1];
+                if (count > 0) {
+                    reviews += count;
+                    ratingSum += count * star;
+                    minRating = minRating == null ? star : minRating;
+                    maxRating = star;
+                    distribution.put(star, count);
+                }
+            }
+
+            if (reviews > 0) {
+                row.put("totalReviews", (int) reviews);
+                row.put("averageRating", averageRating(ratingSum, reviews));
+                row.put("maxRating", maxRating);
+                row.put("minRating", minRating);
+                row.put("ratingDistribution", distribution);
+            } else {
+                row.put("totalReviews", 0);
+                row.put("averageRating", 0.0);
+            }
+            report.add(row);
+        }
+        return report;
+    }
+
+    /**
+     * Order lines, units, revenue and review stats per product with sold lines, from the
+     * snapshot (the columns SlowQueryTestController's complex aggregation computes with
+     * correlated subqueries).
+     */
+    public List<Map<String, Object>> getProductSalesReport() {
+        AnalyticsSnapshot current = snapshot;
+        long[] sales = current.lineTotals(pool, Dimension.PRODUCT, statusMask(SalesStatsService.SOLD_STATUSES));
+        long[] reviews = current.reviewTotals(pool, false);
+
+        List<Map<String, Object>> report = new ArrayList<>();
+        for (int product = 0; product < current.productCount(); product++) {
+            long lines = sales[product * 3];
+            if (lines == 0) {
+                continue;
+            }
+            long reviewCount = reviews[product * 2];
+
+            Map<String, Object> row = new HashMap<>();
+            row.put("productId", current.productId(product));
+            row.put("productName", current.productName(product));
+            row.put("orderLines", lines);
+            row.put("unitsSold", sales[product * 3 + 1]);
+            row.put("revenue", Money.toBigDecimal(sales[product * 3 + 2]));
+            row.put("reviewCount", reviewCount);
+            row.put("averageRating", reviewCount > 0 ? averageRating(reviews[product * 2 + 1], reviewCount) : null);
+            report.add(row);
+        }
+        return report;
+    }
+
+    /**
+     * Order lines, units and revenue per group, over lines of orders in the given statuses
+     * (sold statuses when empty). Empty groups are left out.
+     */
+    public List<SnapshotGroup> groupOrderLines(Dimension dimension, Collection<OrderStatus> statuses) {
+        AnalyticsSnapshot current = snapshot;
+        long[] totals = current.lineTotals(pool, dimension,
+                statusMask(statuses == null || statuses.isEmpty() ? SalesStatsService.SOLD_STATUSES : statuses));
+
+        List<SnapshotGroup> groups = new ArrayList<>();
+        for (int group = 0; group < totals.length / 3; group++) {
+            if (totals[group * 3] > 0) {
+                groups.add(SnapshotGroup.builder()
+                        .key(key(current, dimension, group))
+                        .count(totals[group * 3])
+                        .unitsSold(totals[group * 3 + 1])
+                        .revenue(Money.toBigDecimal(totals[group * 3 + 2]))
+                        .build());
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Review count and average rating per product or category. Empty groups are left out.
+     */
+    public List<SnapshotGroup> groupReviews(Dimension dimension) {
+        if (dimension != Dimension.PRODUCT && dimension != Dimension.CATEGORY) {
+            throw new IllegalArgumentException("Reviews can only be grouped by PRODUCT or CATEGORY");
+        }
+        AnalyticsSnapshot current = snapshot;
+        long[] totals = current.reviewTotals(pool, dimension == Dimension.CATEGORY);
+
+        List<SnapshotGroup> groups = new ArrayList<>();
+        for (int group = 0; group < totals.length / 2; group++) {
+            if (totals[group * 2] > 0) {
+                groups.add(SnapshotGroup.builder()
+                        .key(key(current, dimension, group))
+                        .count(totals[group * 2])
+                        .averageRating(averageRating(totals[group * 2 + 1], totals[group * 2]))
+                        .build());
+            }
+        }
+        return groups;
+    }
+
+    private AnalyticsSnapshot read() {
+        AnalyticsSnapshot.Builder builder = new AnalyticsSnapshot.Builder();
+        long takenAt = System.currentTimeMillis();
+
+        scan(PRODUCTS_QUERY, row -> builder.addProduct((Long) row[0], (String) row[1], (Long) row[2]));
+        scan(REVIEWS_QUERY, row -> builder.addReview((Long) row[0], (Integer) row[1]));
+        scan(LINES_QUERY, row -> builder.addLine((Long) row[0], (Integer) row[1], Money.toCents((BigDecimal) row[2]),
+                (OrderStatus) row[3], ((LocalDateTime) row[4]).toLocalDate()));
+
+        return builder.build(takenAt);
+    }
+
+    private void scan(String query, Consumer<Object[]> consumer) {
+        try (Stream<Object[]> stream = entityManager.createQuery(query, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            Iterator<Object[]> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+            }
+        }
+    }
+
+    private static String key(AnalyticsSnapshot snapshot, Dimension dimension, int group) {
+        return switch (dimension) {
+            case PRODUCT -> String.valueOf(snapshot.productId(group));
+            case CATEGORY -> String.valueOf(snapshot.categoryId(group));
+            case STATUS -> OrderStatus.values()[group].name();
+            case DAY -> snapshot.day(group).toString();
+        };
+    }
+
+    private static int statusMask(Collection<OrderStatus> statuses) {
+        int mask = 0;
+        for (OrderStatus status : statuses) {
+            mask |= 1 << status.ordinal();
+        }
+        return mask;
+    }
+
+    private static double averageRating(long ratingSum, long reviews) {
+        return Math.round((double) ratingSum / reviews * 100.0) / 100.0;
+    }
+}
@@ -2,10 +2,12 @@ package com.buggyshop.service;
 
 import com.buggyshop.entity.Order;
 import com.buggyshop.entity.Product;
-import com.buggyshop.entity.Review;
-import com.buggyshop.entity.OrderItem;
+import com.buggyshop.entity.ProductRatingStats;
+import com.buggyshop.entity.ProductSalesStats;
 import com.buggyshop.repository.OrderRepository;
+import com.buggyshop.repository.ProductRatingStatsRepository;
 import com.buggyshop.repository.ProductRepository;
+import com.buggyshop.repository.ProductSalesStatsRepository;
 import com.buggyshop.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,37 +25,25 @@ public class AnalyticsService {
     private final ProductRepository productRepository;
     private final ReviewRepository reviewRepository;
     private final OrderRepository orderRepository;
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final ProductSalesStatsRepository salesStatsRepository;
 
     /**
-     * N+1 Query Problem:
-     * 1 query to fetch all products
-     * + N queries to fetch reviews for each product (lazy loading triggered)
+     * Review count and average rating per product, read from the maintained
+     * product_rating_stats aggregates in one query (cost grows with products, not reviews).
      */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getProductsWithReviews() {
-        // Fetch all products (1 query)
-        List<Product> products = productRepository.findAll();
+        return ratingStatsRepository.findAllProductsWithStats().stream().map(row -> {
+            ProductRatingStats stats = (ProductRatingStats) row[3];
 
-        // For each product, access reviews - triggers N separate queries due to lazy loading
-        return products.stream().map(product -> {
             Map<String, Object> productData = new HashMap<>();
-            productData.put("id", product.getId());
-            productData.put("name", product.getName());
-            productData.put("price", product.getPrice());
-
-            // This triggers a separate query for each product's reviews
-            List<Review> reviews = product.getReviews();
-            productData.put("reviewCount", reviews.size());
-
-            if (!reviews.isEmpty()) {
-                double avgRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-                productData.put("averageRating", avgRating);
-            } else {
-                productData.put("averageRating", 0.0);
-            }
+            productData.put("id", row[0]);
+            productData.put("name", row[1]);
+            productData.put("price", row[2]);
+            productData.put("reviewCount", stats != null ? (int) stats.getReviewCount() : 0);
+            productData.put("averageRating",
+                    stats != null && stats.getAverageRating() != null ? stats.getAverageRating() : 0.0);
 
             return productData;
         }).collect(Collectors.toList());
@@ -124,47 +114,24 @@ public class AnalyticsService {
     }
 
     /**
-     * Aggregation on Large Dataset:
-     * Scans all reviews to calculate ratings for all products
+     * Rating statistics per product (avg/min/max/distribution) from the maintained
+     * product_rating_stats aggregates instead of scanning every review.
      */
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getProductRatingsReport() {
-        List<Product> products = productRepository.findAll();
+        return ratingStatsRepository.findAllProductsWithStats().stream().map(row -> {
+            ProductRatingStats stats = (ProductRatingStats) row[3];
 
-        return products.stream().map(product -> {
             Map<String, Object> report = new HashMap<>();
-            report.put("productId", product.getId());
-            report.put("productName", product.getName());
-
-            // Triggers separate query for reviews
-            List<Review> reviews = product.getReviews();
-
-            if (!reviews.isEmpty()) {
-                // Calculate statistics
-                double avgRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-
-                int maxRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .max()
-                    .orElse(0);
-
-                int minRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .min()
-                    .orElse(0);
-
-                // Count ratings by value (1-5 stars)
-                Map<Integer, Long> ratingDistribution = reviews.stream()
-                    .collect(Collectors.groupingBy(Review::getRating, Collectors.counting()));
-
-                report.put("totalReviews", reviews.size());
-                report.put("averageRating", Math.round(avgRating * 100.0) / 100.0);
-                report.put("maxRating", maxRating);
-                report.put("minRating", minRating);
-                report.put("ratingDistribution", ratingDistribution);
+            report.put("productId", row[0]);
+            report.put("productName", row[1]);
+
+            if (stats != null && stats.getReviewCount() > 0) {
+                report.put("totalReviews", (int) stats.getReviewCount());
+                report.put("averageRating", Math.round(stats.getAverageRating() * 100.0) / 100.0);
+                report.put("maxRating", stats.getMaxRating());
+                report.put("minRating", stats.getMinRating());
+                report.put("ratingDistribution", stats.getDistribution());
             } else {
                 report.put("totalReviews", 0);
                 report.put("averageRating", 0.0);
@@ -173,4 +140,34 @@ public class AnalyticsService {
             return report;
         }).collect(Collectors.toList());
     }
+
+    /**
+     * Times ordered, units sold, revenue and review stats per sold product, from the
+     * maintained product_sales_stats and product_rating_stats rows in one query (cost grows
+     * with products, not order lines).
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductSalesReport() {
+        return salesStatsRepository.findSoldProductsWithStats().stream().map(row -> {
+            ProductSalesStats sales = (ProductSalesStats) row[2];
+            ProductRatingStats ratings = (ProductRatingStats) row[3];
+
+            Map<String, Object> report = new HashMap<>();
+            report.put("productId", row[0]);
+            report.put("productName", row[1]);
+            report.put("timesOrdered", sales.getTimesOrdered());
+            report.put("unitsSold", sales.getUnitsSold());
+            report.put("revenue", sales.getRevenue());
+
+            if (ratings != null && ratings.getReviewCount() > 0) {
+                report.put("reviewCount", ratings.getReviewCount());
+                report.put("averageRating", Math.round(ratings.getAverageRating() * 100.0) / 100.0);
+            } else {
+                report.put("reviewCount", 0L);
+                report.put("averageRating", null);
+            }
+
+            return report;
+        }).collect(Collectors.toList());
+    }
 }
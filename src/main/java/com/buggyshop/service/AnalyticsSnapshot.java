@@ -0,0 +1,458 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.OrderStatus;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable columnar copy of products, reviews and order lines for {@link AnalyticsEngine}.
+ *
+ * A row is a position in a set of parallel primitive arrays. Reviews and lines refer to
+ * products by their index into the sorted productIds column, never by entity, and line
+ * subtotals are held in cents. Aggregations sum fixed-width groups of longs per row range on
+ * a fork-join pool; each leaf task fills its own array and the halves are added on the way
+ * back up, so no row is ever boxed or shared between threads.
+ *
+ * {@link #writeTo} and {@link #readFrom} store the columns as one little-endian file through
+ * a memory mapping, so a restart can copy them straight back instead of re-reading the tables.
+ */
+final class AnalyticsSnapshot {
+
+    private static final int MAGIC = 0x42534e50;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int MIN_LEAF_ROWS = 1 << 14;
+    private static final int LEAVES_PER_THREAD = 4;
+    private static final int STARS = 5;
+
+    /**
+     * Fills sums with the per-group totals of rows [from, to).
+     */
+    @FunctionalInterface
+    interface RowAccumulator {
+        void accumulate(int from, int to, long[] sums);
+    }
+
+    private static final AnalyticsSnapshot EMPTY = new Builder().build(0);
+
+    private final long takenAt;
+
+    private final long[] productIds;
+    private final String[] productNames;
+    private final long[] productCategoryIds;
+
+    private final int[] reviewProduct;
+    private final byte[] reviewRating;
+
+    private final int[] lineProduct;
+    private final int[] lineQuantity;
+    private final long[] lineSubtotalCents;
+    private final byte[] lineStatus;
+    private final int[] lineDay;
+
+    // Derived on construction, not stored
+    private final long[] categoryIds;
+    private final int[] productCategory;
+    private final int minDay;
+    private final int maxDay;
+
+    private AnalyticsSnapshot(long takenAt, long[] productIds, String[] productNames, long[] productCategoryIds,
+                              int[] reviewProduct, byte[] reviewRating,
+                              int[] lineProduct, int[] lineQuantity, long[] lineSubtotalCents,
+                              byte[] lineStatus, int[] lineDay) {
+        this.takenAt = takenAt;
+        this.productIds = productIds;
+        this.productNames = productNames;
+        this.productCategoryIds = productCategoryIds;
+        this.reviewProduct = reviewProduct;
+        this.reviewRating = reviewRating;
+        this.lineProduct = lineProduct;
+        this.lineQuantity = lineQuantity;
+        this.lineSubtotalCents = lineSubtotalCents;
+        this.lineStatus = lineStatus;
+        this.lineDay = lineDay;
+
+        this.categoryIds = Arrays.stream(productCategoryIds).distinct().sorted().toArray();
+        this.productCategory = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            productCategory[i] = Arrays.binarySearch(categoryIds, productCategoryIds[i]);
+        }
+        this.minDay = Arrays.stream(lineDay).min().orElse(0);
+        this.maxDay = Arrays.stream(lineDay).max().orElse(-1);
+    }
+
+    static AnalyticsSnapshot empty() {
+        return EMPTY;
+    }
+
+    long takenAt() {
+        return takenAt;
+    }
+
+    int productCount() {
+        return productIds.length;
+    }
+
+    int reviewCount() {
+        return reviewProduct.length;
+    }
+
+    int lineCount() {
+        return lineProduct.length;
+    }
+
+    long productId(int product) {
+        return productIds[product];
+    }
+
+    String productName(int product) {
+        return productNames[product];
+    }
+
+    int categoryCount() {
+        return categoryIds.length;
+    }
+
+    /**
+     * Category id of a category index; -1 is uncategorized.
+     */
+    long categoryId(int category) {
+        return categoryIds[category];
+    }
+
+    int dayCount() {
+        return maxDay - minDay + 1;
+    }
+
+    LocalDate day(int day) {
+        return LocalDate.ofEpochDay(minDay + (long) day);
+    }
+
+    /**
+     * Review count per (product, star): index product * 5 + rating - 1.
+     */
+    long[] reviewHistogram(ForkJoinPool pool) {
+        return sum(pool, reviewProduct.length, productIds.length * STARS, (from, to, sums) -> {
+            for (int i = from; i < to; i++) {
+                sums[reviewProduct[i] * STARS + reviewRating[i] - 1]++;
+            }
+        });
+    }
+
+    /**
+     * [reviews, rating sum] per group, grouped by product or by category.
+     */
+    long[] reviewTotals(ForkJoinPool pool, boolean byCategory) {
+        int[] group = byCategory ? productCategory : null;
+        int groups = byCategory ? categoryIds.length : productIds.length;
+        return sum(pool, reviewProduct.length, groups * 2, (from, to, sums) -> {
+            for (int i = from; i < to; i++) {
+                int g = (group != null ? group[reviewProduct[i]] : reviewProduct[i]) * 2;
+                sums[g]++;
+                sums[g + 1] += reviewRating[i];
+            }
+        });
+    }
+
+    /**
+     * [lines, units, revenue cents] per group of the lines whose order status is in
+     * statusMask (bit = ordinal).
+     */
+    long[] lineTotals(ForkJoinPool pool, AnalyticsEngine.Dimension dimension, int statusMask) {
+        return switch (dimension) {
+            case PRODUCT -> lineTotalsByProduct(pool, null, productIds.length, statusMask);
+            case CATEGORY -> lineTotalsByProduct(pool, productCategory, categoryIds.length, statusMask);
+            case STATUS -> sum(pool, lineProduct.length, OrderStatus.values().length * 3, (from, to, sums) -> {
+                for (int i = from; i < to; i++) {
+                    if ((statusMask & (1 << lineStatus[i])) != 0) {
+                        addLine(sums, lineStatus[i] * 3, i);
+                    }
+                }
+            });
+            case DAY -> sum(pool, lineProduct.length, dayCount() * 3, (from, to, sums) -> {
+                for (int i = from; i < to; i++) {
+                    if ((statusMask & (1 << lineStatus[i])) != 0) {
+                        addLine(sums, (lineDay[i] - minDay) * 3, i);
+                    }
+                }
+            });
+        };
+    }
+
+    private long[] lineTotalsByProduct(ForkJoinPool pool, int[] group, int groups, int statusMask) {
+        return sum(pool, lineProduct.length, groups * 3, (from, to, sums) -> {
+            for (int i = from; i < to; i++) {
+                if ((statusMask & (1 << lineStatus[i])) != 0) {
+                    addLine(sums, (group != null ? group[lineProduct[i]] : lineProduct[i]) * 3, i);
+                }
+            }
+        });
+    }
+
+    private void addLine(long[] sums, int offset, int line) {
+        sums[offset]++;
+        sums[offset + 1] += lineQuantity[line];
+        sums[offset + 2] += lineSubtotalCents[line];
+    }
+
+    /**
+     * Runs the accumulator over [0, rows) on the pool, with at most a few leaves per worker
+     * so the per-leaf arrays stay bounded however wide the groups are.
+     */
+    private static long[] sum(ForkJoinPool pool, int rows, int width, RowAccumulator accumulator) {
+        int leafRows = Math.max(MIN_LEAF_ROWS, Math.ceilDiv(rows, pool.getParallelism() * LEAVES_PER_THREAD));
+        return pool.invoke(new GroupSum(accumulator, width, leafRows, 0, rows));
+    }
+
+    private static final class GroupSum extends RecursiveTask<long[]> {
+        private final RowAccumulator accumulator;
+        private final int width;
+        private final int leafRows;
+        private final int from;
+        private final int to;
+
+        GroupSum(RowAccumulator accumulator, int width, int leafRows, int from, int to) {
+            this.accumulator = accumulator;
+            this.width = width;
+            this.leafRows = leafRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= leafRows) {
+                long[] sums = new long[width];
+                accumulator.accumulate(from, to, sums);
+                return sums;
+            }
+            int mid = (from + to) >>> 1;
+            GroupSum left = new GroupSum(accumulator, width, leafRows, from, mid);
+            left.fork();
+            long[] sums = new GroupSum(accumulator, width, leafRows, mid, to).compute();
+            long[] leftSums = left.join();
+            for (int i = 0; i < width; i++) {
+                sums[i] += leftSums[i];
+            }
+            return sums;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to target and moves it into place, so a
+     * reader never sees a half-written file.
+     */
+    void writeTo(Path target) throws IOException {
+        byte[][] names = new byte[productNames.length][];
+        long size = HEADER_BYTES
+                + (long) productIds.length * (8 + 8 + 4)
+                + (long) reviewProduct.length * (4 + 1)
+                + (long) lineProduct.length * (4 + 4 + 8 + 1 + 4);
+        for (int i = 0; i < names.length; i++) {
+            names[i] = productNames[i] == null ? new byte[0] : productNames[i].getBytes(StandardCharsets.UTF_8);
+            size += names[i].length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot of " + size + " bytes exceeds a single mapping");
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(takenAt)
+                    .putInt(productIds.length).putInt(reviewProduct.length).putInt(lineProduct.length);
+
+            putLongs(buffer, productIds);
+            putLongs(buffer, productCategoryIds);
+            for (byte[] name : names) {
+                buffer.putInt(name.length).put(name);
+            }
+            putInts(buffer, reviewProduct);
+            buffer.put(reviewRating);
+            putInts(buffer, lineProduct);
+            putInts(buffer, lineQuantity);
+            putLongs(buffer, lineSubtotalCents);
+            buffer.put(lineStatus);
+            putInts(buffer, lineDay);
+            buffer.force();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo}.
+     *
+     * @throws IOException if the file cannot be read or is not a snapshot of this version
+     */
+    static AnalyticsSnapshot readFrom(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not an analytics snapshot: " + source);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an analytics snapshot of version " + VERSION + ": " + source);
+            }
+            long takenAt = buffer.getLong();
+            int products = buffer.getInt();
+            int reviews = buffer.getInt();
+            int lines = buffer.getInt();
+
+            try {
+                long[] productIds = getLongs(buffer, products);
+                long[] productCategoryIds = getLongs(buffer, products);
+                String[] productNames = new String[products];
+                for (int i = 0; i < products; i++) {
+                    byte[] name = new byte[buffer.getInt()];
+                    buffer.get(name);
+                    productNames[i] = new String(name, StandardCharsets.UTF_8);
+                }
+                int[] reviewProduct = getInts(buffer, reviews);
+                byte[] reviewRating = getBytes(buffer, reviews);
+                int[] lineProduct = getInts(buffer, lines);
+                int[] lineQuantity = getInts(buffer, lines);
+                long[] lineSubtotalCents = getLongs(buffer, lines);
+                byte[] lineStatus = getBytes(buffer, lines);
+                int[] lineDay = getInts(buffer, lines);
+
+                return new AnalyticsSnapshot(takenAt, productIds, productNames, productCategoryIds,
+                        reviewProduct, reviewRating, lineProduct, lineQuantity, lineSubtotalCents,
+                        lineStatus, lineDay);
+            } catch (RuntimeException e) {
+                throw new IOException("Truncated or corrupt analytics snapshot: " + source, e);
+            }
+        }
+    }
+
+    private static void putLongs(ByteBuffer buffer, long[] values) {
+        buffer.asLongBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Long.BYTES);
+    }
+
+    private static void putInts(ByteBuffer buffer, int[] values) {
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + values.length * Integer.BYTES);
+    }
+
+    private static long[] getLongs(ByteBuffer buffer, int count) {
+        long[] values = new long[count];
+        buffer.asLongBuffer().get(values);
+        buffer.position(buffer.position() + count * Long.BYTES);
+        return values;
+    }
+
+    private static int[] getInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer, int count) {
+        byte[] values = new byte[count];
+        buffer.get(values);
+        return values;
+    }
+
+    /**
+     * Collects rows into growable columns. Products must be added first, in id order; reviews
+     * and lines of products that are not in the snapshot (created while it was being read) or
+     * with a rating outside 1..5 are dropped.
+     */
+    static final class Builder {
+        private long[] productIds = new long[256];
+        private String[] productNames = new String[256];
+        private long[] productCategoryIds = new long[256];
+        private int products;
+
+        private int[] reviewProduct = new int[1024];
+        private byte[] reviewRating = new byte[1024];
+        private int reviews;
+
+        private int[] lineProduct = new int[1024];
+        private int[] lineQuantity = new int[1024];
+        private long[] lineSubtotalCents = new long[1024];
+        private byte[] lineStatus = new byte[1024];
+        private int[] lineDay = new int[1024];
+        private int lines;
+
+        void addProduct(long id, String name, Long categoryId) {
+            if (products == productIds.length) {
+                int capacity = products * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                productNames = Arrays.copyOf(productNames, capacity);
+                productCategoryIds = Arrays.copyOf(productCategoryIds, capacity);
+            }
+            productIds[products] = id;
+            productNames[products] = name;
+            productCategoryIds[products] = categoryId != null ? categoryId : -1;
+            products++;
+        }
+
+        void addReview(long productId, int rating) {
+            int product = productIndex(productId);
+            if (product < 0 || rating < 1 || rating > STARS) {
+                return;
+            }
+            if (reviews == reviewProduct.length) {
+                int capacity = reviews * 2;
+                reviewProduct = Arrays.copyOf(reviewProduct, capacity);
+                reviewRating = Arrays.copyOf(reviewRating, capacity);
+            }
+            reviewProduct[reviews] = product;
+            reviewRating[reviews] = (byte) rating;
+            reviews++;
+        }
+
+        void addLine(long productId, int quantity, long subtotalCents, OrderStatus status, LocalDate day) {
+            int product = productIndex(productId);
+            if (product < 0) {
+                return;
+            }
+            if (lines == lineProduct.length) {
+                int capacity = lines * 2;
+                lineProduct = Arrays.copyOf(lineProduct, capacity);
+                lineQuantity = Arrays.copyOf(lineQuantity, capacity);
+                lineSubtotalCents = Arrays.copyOf(lineSubtotalCents, capacity);
+                lineStatus = Arrays.copyOf(lineStatus, capacity);
+                lineDay = Arrays.copyOf(lineDay, capacity);
+            }
+            lineProduct[lines] = product;
+            lineQuantity[lines] = quantity;
+            lineSubtotalCents[lines] = subtotalCents;
+            lineStatus[lines] = (byte) status.ordinal();
+            lineDay[lines] = Math.toIntExact(day.toEpochDay());
+            lines++;
+        }
+
+        AnalyticsSnapshot build(long takenAt) {
+            return new AnalyticsSnapshot(takenAt,
+                    Arrays.copyOf(productIds, products), Arrays.copyOf(productNames, products),
+                    Arrays.copyOf(productCategoryIds, products),
+                    Arrays.copyOf(reviewProduct, reviews), Arrays.copyOf(reviewRating, reviews),
+                    Arrays.copyOf(lineProduct, lines), Arrays.copyOf(lineQuantity, lines),
+                    Arrays.copyOf(lineSubtotalCents, lines),
+                    Arrays.copyOf(lineStatus, lines), Arrays.copyOf(lineDay, lines));
+        }
+
+        private int productIndex(long productId) {
+            return Arrays.binarySearch(productIds, 0, products, productId);
+        }
+    }
+}
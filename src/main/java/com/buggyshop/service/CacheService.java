@@ -0,0 +1,102 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Category;
+import com.buggyshop.entity.Inventory;
+import com.buggyshop.entity.Product;
+import com.buggyshop.entity.ProductRatingStats;
+import com.buggyshop.event.EntityChangedEvent;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the cache regions coherent with the database and reports their statistics.
+ *
+ * Entity writes are announced as {@link EntityChangedEvent}s; this service evicts every
+ * region that holds a view of the changed entity once the writing transaction commits.
+ * ProductResponse embeds available stock and rating, so inventory and rating changes
+ * evict products as well. It also embeds the category name, but category events carry
+ * category ids, not product ids, so a category change clears the products region instead.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheService {
+
+    private static final Map<Class<?>, List<String>> REGIONS_BY_ENTITY = Map.of(
+            Product.class, List.of("products", "inventory"),
+            Inventory.class, List.of("inventory", "products"),
+            ProductRatingStats.class, List.of("products"));
+
+    /**
+     * Regions holding views of the entity under other entities' keys, cleared as a whole.
+     */
+    private static final Map<Class<?>, List<String>> REGIONS_CLEARED_BY_ENTITY = Map.of(
+            Category.class, List.of("products"));
+
+    private final CacheManager cacheManager;
+    private final Map<String, LongAdder> invalidations = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        for (String region : REGIONS_BY_ENTITY.getOrDefault(event.entityType(), List.of())) {
+            Cache cache = cacheManager.getCache(region);
+            if (cache == null) {
+                continue;
+            }
+            event.ids().forEach(cache::evict);
+            invalidations.computeIfAbsent(region, r -> new LongAdder()).add(event.ids().size());
+        }
+        for (String region : REGIONS_CLEARED_BY_ENTITY.getOrDefault(event.entityType(), List.of())) {
+            Cache cache = cacheManager.getCache(region);
+            if (cache == null) {
+                continue;
+            }
+            long entries = cache instanceof CaffeineCache caffeine ? caffeine.getNativeCache().estimatedSize() : 0;
+            cache.clear();
+            invalidations.computeIfAbsent(region, r -> new LongAdder()).add(entries);
+        }
+        log.debug("Invalidated {} {} entries", event.ids().size(), event.entityType().getSimpleName());
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+
+        for (String name : cacheManager.getCacheNames()) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache cache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = cache.getNativeCache();
+            CacheStats stats = nativeCache.stats();
+
+            Map<String, Object> region = new LinkedHashMap<>();
+            region.put("size", nativeCache.estimatedSize());
+            nativeCache.policy().eviction().ifPresent(eviction -> {
+                region.put("maximum", eviction.getMaximum());
+                eviction.weightedSize().ifPresent(weight -> region.put("weightedSize", weight));
+            });
+            region.put("hitCount", stats.hitCount());
+            region.put("missCount", stats.missCount());
+            region.put("hitRate", stats.hitRate());
+            region.put("evictionCount", stats.evictionCount());
+            region.put("evictionWeight", stats.evictionWeight());
+            region.put("loadSuccessCount", stats.loadSuccessCount());
+            region.put("loadFailureCount", stats.loadFailureCount());
+            region.put("averageLoadPenaltyMs", stats.averageLoadPenalty() / 1_000_000.0);
+            region.put("invalidationCount", invalidations.getOrDefault(name, new LongAdder()).sum());
+            result.put(name, region);
+        }
+        return result;
+    }
+}
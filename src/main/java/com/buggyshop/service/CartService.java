@@ -0,0 +1,94 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.CartItemRequest;
+import com.buggyshop.dto.CartResponse;
+import com.buggyshop.dto.ProductResponse;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Cart operations for a browser session, served from the {@link CartStore}. Product names and
+ * prices come from the "products" cache region, so viewing or changing a cart normally runs
+ * no SQL at all.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CartService {
+
+    private final CartStore cartStore;
+    private final ProductService productService;
+    private final UserRepository userRepository;
+
+    public CartResponse getCart(String sessionId) {
+        return toResponse(sessionId, cartStore.get(sessionId));
+    }
+
+    public CartResponse addItem(String sessionId, CartItemRequest request) {
+        log.info("Adding product {} x{} to cart of session {}", request.getProductId(), request.getQuantity(), sessionId);
+
+        productService.getProduct(request.getProductId());
+        return toResponse(sessionId, cartStore.add(sessionId, request.getProductId(), request.getQuantity()));
+    }
+
+    public CartResponse updateItem(String sessionId, Long productId, Integer quantity) {
+        log.info("Setting quantity of product {} to {} in cart of session {}", productId, quantity, sessionId);
+
+        if (quantity == null || quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        return toResponse(sessionId, cartStore.setQuantity(sessionId, productId, quantity));
+    }
+
+    public CartResponse removeItem(String sessionId, Long productId) {
+        log.info("Removing product {} from cart of session {}", productId, sessionId);
+
+        return toResponse(sessionId, cartStore.remove(sessionId, productId));
+    }
+
+    /**
+     * Called on login: the session's anonymous cart is merged into the user's cart.
+     */
+    public CartResponse mergeOnLogin(String sessionId, Long userId) {
+        log.info("Merging cart of session {} into cart of user {}", sessionId, userId);
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return toResponse(sessionId, cartStore.mergeIntoUserCart(sessionId, userId));
+    }
+
+    private CartResponse toResponse(String sessionId, CartStore.CartSnapshot cart) {
+        CartResponse response = CartResponse.builder()
+                .cartId(cart.cartId())
+                .sessionId(sessionId)
+                .userId(cart.userId())
+                .build();
+
+        long total = 0;
+        for (var line : cart.items().entrySet()) {
+            ProductResponse product;
+            try {
+                product = productService.getProduct(line.getKey());
+            } catch (ResourceNotFoundException e) {
+                // Deleted since it was added; checkout will reject it
+                continue;
+            }
+            long subtotal = Money.times(Money.toCents(product.getPrice()), line.getValue());
+            total = Money.add(total, subtotal);
+            response.getItems().add(CartResponse.Item.builder()
+                    .productId(product.getId())
+                    .productName(product.getName())
+                    .sku(product.getSku())
+                    .quantity(line.getValue())
+                    .price(product.getPrice())
+                    .subtotal(Money.toBigDecimal(subtotal))
+                    .build());
+        }
+        response.setTotal(Money.toBigDecimal(total));
+        return response;
+    }
+}
@@ -0,0 +1,396 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Cart;
+import com.buggyshop.entity.CartItem;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.CartItemRepository;
+import com.buggyshop.repository.CartRepository;
+import com.buggyshop.repository.ProductRepository;
+import com.buggyshop.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Hot, session-keyed cart store with write-behind persistence.
+ *
+ * Cart contents (productId -> quantity) live in memory; add/update/remove/view never touch
+ * the cart_items table. Only the first touch of a session reads its cart, creating the carts
+ * row if needed, so every hot cart has a database id that checkout can refer to. Changed
+ * carts are marked dirty and written by a scheduled job, up to buggyshop.cart.flush-batch-size
+ * carts per transaction, so any number of changes to one cart between flushes cost a single
+ * write. Writers lock the cart rows in id order and snapshot the hot contents only once they
+ * hold the lock, so the last snapshot written is always the newest.
+ *
+ * {@link #prepareCheckout} writes a cart synchronously inside the checkout transaction and
+ * takes the ordered lines out of the hot cart once it commits. Carts idle for
+ * buggyshop.cart.idle-timeout are dropped from memory once flushed.
+ */
+@Component
+@Slf4j
+public class CartStore {
+
+    /**
+     * Immutable copy of a hot cart's contents.
+     */
+    public record CartSnapshot(Long cartId, Long userId, Map<Long, Integer> items) {
+    }
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final int flushBatchSize;
+    private final Duration idleTimeout;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Long> cartIdsBySession = new ConcurrentHashMap<>();
+    private final Map<Long, HotCart> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    public CartStore(CartRepository cartRepository,
+                     CartItemRepository cartItemRepository,
+                     ProductRepository productRepository,
+                     UserRepository userRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${buggyshop.cart.flush-batch-size:500}") int flushBatchSize,
+                     @Value("${buggyshop.cart.idle-timeout:30m}") Duration idleTimeout) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.flushBatchSize = Math.max(1, flushBatchSize);
+        this.idleTimeout = idleTimeout;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public CartSnapshot get(String sessionId) {
+        while (true) {
+            HotCart cart = cart(cartIdBySession(sessionId));
+            synchronized (cart) {
+                if (!cart.evicted) {
+                    cart.lastAccess = System.currentTimeMillis();
+                    return cart.snapshot();
+                }
+            }
+        }
+    }
+
+    public CartSnapshot add(String sessionId, Long productId, int quantity) {
+        return mutate(sessionId, cart -> cart.items.merge(productId, quantity, Integer::sum));
+    }
+
+    public CartSnapshot setQuantity(String sessionId, Long productId, int quantity) {
+        return mutate(sessionId, cart -> {
+            if (!cart.items.containsKey(productId)) {
+                throw new ResourceNotFoundException("Product is not in the cart");
+            }
+            cart.items.put(productId, quantity);
+        });
+    }
+
+    public CartSnapshot remove(String sessionId, Long productId) {
+        return mutate(sessionId, cart -> cart.items.remove(productId));
+    }
+
+    /**
+     * Moves the session's anonymous cart into the user's cart and points the session at the
+     * user's cart from then on. A user without a cart simply adopts the session cart.
+     */
+    public CartSnapshot mergeIntoUserCart(String sessionId, Long userId) {
+        while (true) {
+            HotCart anonymous = cart(cartIdBySession(sessionId));
+            Long userCartId = cartRepository.findIdsByUserId(userId).stream().findFirst().orElse(null);
+
+            if (userCartId == null || userCartId.equals(anonymous.cartId)) {
+                synchronized (anonymous) {
+                    if (anonymous.evicted) {
+                        continue;
+                    }
+                    anonymous.userId = userId;
+                    changed(anonymous);
+                    return anonymous.snapshot();
+                }
+            }
+
+            HotCart user = cart(userCartId);
+            HotCart first = anonymous.cartId < user.cartId ? anonymous : user;
+            HotCart second = first == anonymous ? user : anonymous;
+            synchronized (first) {
+                synchronized (second) {
+                    if (anonymous.evicted || user.evicted) {
+                        continue;
+                    }
+                    anonymous.items.forEach((productId, quantity) -> user.items.merge(productId, quantity, Integer::sum));
+                    anonymous.items.clear();
+                    cartIdsBySession.put(sessionId, user.cartId);
+                    changed(anonymous);
+                    changed(user);
+                    log.info("Merged cart {} of session {} into cart {} of user {}",
+                            anonymous.cartId, sessionId, user.cartId, userId);
+                    return user.snapshot();
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the cart's pending changes within the caller's (checkout) transaction, so that
+     * it reads exactly what the customer sees. After commit the checked-out lines are taken
+     * out of the hot cart; lines added meanwhile stay.
+     */
+    @Transactional
+    public void prepareCheckout(Long cartId) {
+        if (!carts.containsKey(cartId)) {
+            return;
+        }
+
+        dirty.remove(cartId);
+        List<CartSnapshot> written = write(List.of(cartId));
+        if (written.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        Map<Long, Integer> checkedOut = written.get(0).items();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                HotCart cart = carts.get(cartId);
+                if (status != STATUS_COMMITTED) {
+                    dirty.add(cartId);
+                } else if (cart != null) {
+                    synchronized (cart) {
+                        checkedOut.forEach((productId, quantity) -> cart.items.computeIfPresent(productId,
+                                (id, current) -> current > quantity ? current - quantity : null));
+                        if (!cart.items.isEmpty()) {
+                            dirty.add(cartId);
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Write-behind flush: writes up to flush-batch-size dirty carts in one transaction.
+     */
+    @Scheduled(fixedDelayString = "${buggyshop.cart.flush-interval-ms:1000}")
+    @Transactional
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        List<Long> cartIds = new ArrayList<>(Math.min(flushBatchSize, dirty.size()));
+        for (Iterator<Long> it = dirty.iterator(); it.hasNext() && cartIds.size() < flushBatchSize; ) {
+            cartIds.add(it.next());
+            it.remove();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        log.error("Cart flush rolled back, re-queueing {} carts", cartIds.size());
+                        dirty.addAll(cartIds);
+                    }
+                }
+            });
+        }
+
+        write(cartIds);
+        log.debug("Flushed {} carts", cartIds.size());
+    }
+
+    @Scheduled(fixedDelayString = "${buggyshop.cart.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+        int evicted = 0;
+
+        for (HotCart cart : carts.values()) {
+            synchronized (cart) {
+                if (cart.lastAccess < cutoff && !dirty.contains(cart.cartId)) {
+                    cart.evicted = true;
+                    carts.remove(cart.cartId);
+                    evicted++;
+                }
+            }
+        }
+        if (evicted > 0) {
+            cartIdsBySession.values().removeIf(cartId -> !carts.containsKey(cartId));
+            log.debug("Evicted {} idle carts", evicted);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        int pending = dirty.size();
+        while (pending > 0) {
+            log.info("Flushing {} pending carts before shutdown", pending);
+            transactionTemplate.executeWithoutResult(status -> flush());
+            if (dirty.size() >= pending) {
+                log.error("Cart flush made no progress, {} carts not persisted", dirty.size());
+                return;
+            }
+            pending = dirty.size();
+        }
+    }
+
+    /**
+     * Applies the change under the cart's lock, retrying against a reloaded cart if the one
+     * found was evicted in the meantime.
+     */
+    private CartSnapshot mutate(String sessionId, Consumer<HotCart> change) {
+        while (true) {
+            HotCart cart = cart(cartIdBySession(sessionId));
+            synchronized (cart) {
+                if (cart.evicted) {
+                    continue;
+                }
+                change.accept(cart);
+                changed(cart);
+                return cart.snapshot();
+            }
+        }
+    }
+
+    private void changed(HotCart cart) {
+        cart.lastAccess = System.currentTimeMillis();
+        dirty.add(cart.cartId);
+    }
+
+    /**
+     * Loads (or creates) the session's cart outside the map, so no JDBC call runs under a
+     * ConcurrentHashMap bin lock, then publishes it with putIfAbsent. A thread that loses the
+     * race for a new session deletes the carts row it created and uses the winner's.
+     */
+    private Long cartIdBySession(String sessionId) {
+        Long cartId = cartIdsBySession.get(sessionId);
+        if (cartId != null) {
+            return cartId;
+        }
+
+        Long loaded = cartRepository.findIdsBySessionId(sessionId).stream().findFirst().orElse(null);
+        boolean created = loaded == null;
+        if (created) {
+            loaded = cartRepository.save(Cart.builder().sessionId(sessionId).build()).getId();
+        }
+
+        Long published = cartIdsBySession.putIfAbsent(sessionId, loaded);
+        if (published == null) {
+            return loaded;
+        }
+        if (created && !published.equals(loaded)) {
+            cartRepository.deleteById(loaded);
+        }
+        return published;
+    }
+
+    /**
+     * Same pattern as {@link #cartIdBySession}: read the cart outside the map, keep whichever
+     * copy was published first.
+     */
+    private HotCart cart(Long cartId) {
+        HotCart hot = carts.get(cartId);
+        if (hot != null) {
+            return hot;
+        }
+
+        Cart cart = cartRepository.findById(cartId)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
+        HotCart loaded = new HotCart(cartId, cart.getUser() != null ? cart.getUser().getId() : null);
+        for (Object[] line : cartItemRepository.findLinesByCartId(cartId)) {
+            loaded.items.merge((Long) line[0], (Integer) line[1], Integer::sum);
+        }
+
+        HotCart published = carts.putIfAbsent(cartId, loaded);
+        return published != null ? published : loaded;
+    }
+
+    /**
+     * Makes the cart_items rows of the given carts match the hot carts: quantities updated in
+     * place, new lines inserted, dropped lines deleted (all batched by Hibernate).
+     */
+    private List<CartSnapshot> write(Collection<Long> cartIds) {
+        List<Cart> locked = cartRepository.findAllByIdInWithLock(cartIds);
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = locked.stream().map(Cart::getId).toList();
+        List<CartSnapshot> written = new ArrayList<>(ids.size());
+
+        for (Cart cart : cartRepository.findAllWithItemsByIdIn(ids)) {
+            HotCart hot = carts.get(cart.getId());
+            if (hot == null) {
+                continue;
+            }
+            CartSnapshot snapshot;
+            synchronized (hot) {
+                snapshot = hot.snapshot();
+            }
+
+            if (snapshot.userId() != null
+                    && (cart.getUser() == null || !snapshot.userId().equals(cart.getUser().getId()))) {
+                cart.setUser(userRepository.getReferenceById(snapshot.userId()));
+            }
+
+            Map<Long, Integer> remaining = new LinkedHashMap<>(snapshot.items());
+            cart.getItems().removeIf(item -> {
+                Integer quantity = remaining.remove(item.getProduct().getId());
+                if (quantity == null) {
+                    return true;
+                }
+                if (!quantity.equals(item.getQuantity())) {
+                    item.setQuantity(quantity);
+                }
+                return false;
+            });
+            remaining.forEach((productId, quantity) -> cart.getItems().add(CartItem.builder()
+                    .cart(cart)
+                    .product(productRepository.getReferenceById(productId))
+                    .quantity(quantity)
+                    .build()));
+
+            written.add(snapshot);
+        }
+        return written;
+    }
+
+    private static final class HotCart {
+        private final Long cartId;
+        private Long userId;
+        private final Map<Long, Integer> items = new LinkedHashMap<>();
+        private long lastAccess = System.currentTimeMillis();
+        private boolean evicted;
+
+        HotCart(Long cartId, Long userId) {
+            this.cartId = cartId;
+            this.userId = userId;
+        }
+
+        CartSnapshot snapshot() {
+            return new CartSnapshot(cartId, userId, Collections.unmodifiableMap(new LinkedHashMap<>(items)));
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.CategoryNode;
+import com.buggyshop.dto.CategoryRequest;
+import com.buggyshop.entity.Category;
+import com.buggyshop.event.EntityChangedEvent;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Serves the category hierarchy from an immutable {@link CategoryTree} snapshot.
+ *
+ * The snapshot is built from one query at startup and rebuilt whenever a category write
+ * commits (announced as an {@link EntityChangedEvent}); readers never touch the lazy
+ * parent/children associations.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile CategoryTree tree = CategoryTree.empty();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        tree = CategoryTree.build(categoryRepository.findAllTreeRows());
+        log.info("Category tree built: {} categories, {} top-level", tree.size(), tree.roots().size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == Category.class) {
+            rebuild();
+        }
+    }
+
+    public List<CategoryNode> getTree() {
+        log.info("Getting category tree");
+
+        CategoryTree snapshot = tree;
+        return snapshot.roots().stream().map(root -> toTreeNode(snapshot, root)).toList();
+    }
+
+    public CategoryNode getCategory(Long id) {
+        log.info("Getting category: {}", id);
+
+        CategoryTree snapshot = tree;
+        CategoryTree.Node node = node(snapshot, id);
+        CategoryNode category = toNode(node);
+        category.setPath(snapshot.path(node).stream()
+                .filter(ancestor -> ancestor != node)
+                .map(CategoryService::toNode)
+                .toList());
+        category.setChildren(snapshot.children(node.id()).stream().map(CategoryService::toNode).toList());
+        return category;
+    }
+
+    /**
+     * Ids of the category and all of its descendants.
+     */
+    public List<Long> getSubtreeIds(Long id) {
+        CategoryTree snapshot = tree;
+        return snapshot.subtreeIds(node(snapshot, id));
+    }
+
+    @Transactional
+    public CategoryNode createCategory(CategoryRequest request) {
+        log.info("Creating category: {}", request.getName());
+
+        Category category = Category.builder()
+                .name(request.getName())
+                .description(request.getDescription())
+                .parent(parent(request.getParentId()))
+                .build();
+        category = categoryRepository.save(category);
+
+        eventPublisher.publishEvent(EntityChangedEvent.of(Category.class, category.getId()));
+        return toNode(category);
+    }
+
+    /**
+     * Renames and/or moves a category. Moving it under itself or one of its descendants is
+     * rejected, so the hierarchy stays a tree.
+     */
+    @Transactional
+    public CategoryNode updateCategory(Long id, CategoryRequest request) {
+        log.info("Updating category: {}", id);
+
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found"));
+
+        Long parentId = request.getParentId();
+        if (parentId != null) {
+            CategoryTree snapshot = tree;
+            CategoryTree.Node node = snapshot.get(id);
+            if (parentId.equals(id) || (node != null && snapshot.isInSubtree(parentId, node))) {
+                throw new IllegalArgumentException(
+                        "Cannot move a category under itself or one of its subcategories");
+            }
+        }
+
+        category.setName(request.getName());
+        category.setDescription(request.getDescription());
+        category.setParent(parent(parentId));
+        category = categoryRepository.save(category);
+
+        eventPublisher.publishEvent(EntityChangedEvent.of(Category.class, id));
+        return toNode(category);
+    }
+
+    private Category parent(Long parentId) {
+        if (parentId == null) {
+            return null;
+        }
+        return categoryRepository.findById(parentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Parent category not found"));
+    }
+
+    private static CategoryTree.Node node(CategoryTree snapshot, Long id) {
+        CategoryTree.Node node = snapshot.get(id);
+        if (node == null) {
+            throw new ResourceNotFoundException("Category not found");
+        }
+        return node;
+    }
+
+    private static CategoryNode toTreeNode(CategoryTree snapshot, CategoryTree.Node node) {
+        CategoryNode category = toNode(node);
+        category.setChildren(snapshot.children(node.id()).stream()
+                .map(child -> toTreeNode(snapshot, child))
+                .toList());
+        return category;
+    }
+
+    private static CategoryNode toNode(CategoryTree.Node node) {
+        return CategoryNode.builder()
+                .id(node.id())
+                .name(node.name())
+                .description(node.description())
+                .parentId(node.parentId())
+                .depth(node.depth())
+                .subtreeSize(node.subtreeSize())
+                .build();
+    }
+
+    private static CategoryNode toNode(Category category) {
+        return CategoryNode.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .description(category.getDescription())
+                .parentId(category.getParent() != null ? category.getParent().getId() : null)
+                .build();
+    }
+}
@@ -0,0 +1,212 @@
+package com.buggyshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the category hierarchy, laid out as a nested set.
+ *
+ * A depth-first (Euler tour) walk numbers every category in preorder; each node keeps its
+ * own number ({@code left}) and that of its last descendant ({@code right}), so a subtree is
+ * the contiguous slice preorder[left..right] and "is X under Y" is an interval check. Each node
+ * also carries its ancestor path from the root. Siblings are ordered by name, then id.
+ *
+ * A parent that does not exist makes the category a root; a parent cycle is broken at its
+ * lowest id.
+ */
+@Slf4j
+final class CategoryTree {
+
+    record Node(long id, Long parentId, String name, String description,
+                int depth, int left, int right, long[] path) {
+
+        int subtreeSize() {
+            return right - left + 1;
+        }
+    }
+
+    private static final CategoryTree EMPTY = new CategoryTree(Map.of(), new long[0], List.of(), Map.of());
+
+    private final Map<Long, Node> nodes;
+    private final long[] preorder;
+    private final List<Node> roots;
+    private final Map<Long, List<Node>> children;
+
+    private CategoryTree(Map<Long, Node> nodes, long[] preorder, List<Node> roots, Map<Long, List<Node>> children) {
+        this.nodes = nodes;
+        this.preorder = preorder;
+        this.roots = roots;
+        this.children = children;
+    }
+
+    static CategoryTree empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds the tree from [id, parentId, name, description] rows.
+     */
+    static CategoryTree build(List<Object[]> rows) {
+        Map<Long, Object[]> byId = new HashMap<>();
+        for (Object[] row : rows) {
+            byId.put((Long) row[0], row);
+        }
+
+        Comparator<Object[]> siblingOrder = Comparator
+                .comparing((Object[] row) -> Objects.toString(row[2], ""))
+                .thenComparing(row -> (Long) row[0]);
+        Map<Long, List<Object[]>> childRows = new HashMap<>();
+        List<Object[]> rootRows = new ArrayList<>();
+        for (Object[] row : rows) {
+            Long parentId = (Long) row[1];
+            if (parentId == null || !byId.containsKey(parentId)) {
+                rootRows.add(row);
+            } else {
+                childRows.computeIfAbsent(parentId, p -> new ArrayList<>()).add(row);
+            }
+        }
+        rootRows.sort(siblingOrder);
+        childRows.values().forEach(list -> list.sort(siblingOrder));
+
+        Walk walk = new Walk(rows.size(), childRows);
+        for (Object[] root : rootRows) {
+            walk.visit(root, null);
+        }
+        if (walk.size < rows.size()) {
+            // Whatever is left hangs off a parent cycle: cut each cycle at its lowest id
+            rows.stream()
+                    .sorted(Comparator.comparing(row -> (Long) row[0]))
+                    .forEach(row -> {
+                        if (!walk.nodes.containsKey((Long) row[0])) {
+                            log.warn("Category {} is part of a parent cycle; treating it as a root", row[0]);
+                            walk.visit(row, null);
+                        }
+                    });
+        }
+
+        // The walk's insertion order is preorder, so these lists come out in sibling order
+        List<Node> roots = new ArrayList<>();
+        Map<Long, List<Node>> children = new HashMap<>();
+        for (Node node : walk.nodes.values()) {
+            if (node.depth() == 0) {
+                roots.add(node);
+            } else {
+                children.computeIfAbsent(node.path()[node.depth() - 1], p -> new ArrayList<>()).add(node);
+            }
+        }
+        children.replaceAll((parentId, list) -> List.copyOf(list));
+
+        return new CategoryTree(Collections.unmodifiableMap(walk.nodes), walk.preorder,
+                List.copyOf(roots), Collections.unmodifiableMap(children));
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    Node get(long id) {
+        return nodes.get(id);
+    }
+
+    List<Node> roots() {
+        return roots;
+    }
+
+    List<Node> children(long id) {
+        return children.getOrDefault(id, List.of());
+    }
+
+    /**
+     * The category and all of its descendants, in preorder.
+     */
+    List<Long> subtreeIds(Node node) {
+        List<Long> ids = new ArrayList<>(node.subtreeSize());
+        for (int i = node.left(); i <= node.right(); i++) {
+            ids.add(preorder[i]);
+        }
+        return ids;
+    }
+
+    boolean isInSubtree(long id, Node ancestor) {
+        Node node = nodes.get(id);
+        return node != null && node.left() >= ancestor.left() && node.right() <= ancestor.right();
+    }
+
+    List<Node> path(Node node) {
+        return Arrays.stream(node.path()).mapToObj(nodes::get).toList();
+    }
+
+    /**
+     * Iterative preorder walk that assigns left/right numbers and ancestor paths.
+     */
+    private static final class Walk {
+        private final Map<Long, Node> nodes;
+        private final long[] preorder;
+        private final Map<Long, List<Object[]>> childRows;
+        private int size;
+
+        Walk(int capacity, Map<Long, List<Object[]>> childRows) {
+            this.nodes = new LinkedHashMap<>(capacity * 2);
+            this.preorder = new long[capacity];
+            this.childRows = childRows;
+        }
+
+        void visit(Object[] start, long[] parentPath) {
+            Deque<Frame> stack = new ArrayDeque<>();
+            stack.push(enter(start, parentPath == null ? new long[0] : parentPath));
+
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                List<Object[]> kids = childRows.getOrDefault(frame.id, List.of());
+                if (frame.nextChild < kids.size()) {
+                    Object[] child = kids.get(frame.nextChild++);
+                    if (!nodes.containsKey((Long) child[0])) {
+                        stack.push(enter(child, frame.path));
+                    }
+                    continue;
+                }
+
+                stack.pop();
+                Object[] row = frame.row;
+                nodes.put(frame.id, new Node(frame.id, (Long) row[1], (String) row[2], (String) row[3],
+                        frame.path.length - 1, frame.left, size - 1, frame.path));
+            }
+        }
+
+        private Frame enter(Object[] row, long[] parentPath) {
+            long id = (Long) row[0];
+            long[] path = Arrays.copyOf(parentPath, parentPath.length + 1);
+            path[parentPath.length] = id;
+            preorder[size] = id;
+            // Placeholder so a cycle back to this node is not entered again
+            nodes.put(id, null);
+            return new Frame(id, row, path, size++);
+        }
+    }
+
+    private static final class Frame {
+        private final long id;
+        private final Object[] row;
+        private final long[] path;
+        private final int left;
+        private int nextChild;
+
+        Frame(long id, Object[] row, long[] path, int left) {
+            this.id = id;
+            this.row = row;
+            this.path = path;
+            this.left = left;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Coupon;
+import com.buggyshop.entity.CouponShard;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.CouponRepository;
+import com.buggyshop.repository.CouponShardRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Coupon redemption that can never exceed maxUses, even under a promo blast.
+ *
+ * Coupon terms are looked up through the "coupons" cache region (keyed by code), so a
+ * checkout only touches the database to count the use. Counting is always one conditional
+ * UPDATE, never read-check-write:
+ * - ordinary coupons increment usedCount on the coupon row where usedCount &lt; maxUses
+ * - unlimited coupons and those with at least buggyshop.coupons.sharding-threshold uses
+ *   increment one of buggyshop.coupons.shards {@link CouponShard} rows, starting at a random
+ *   shard and moving on while shards are exhausted, so concurrent checkouts rarely wait on
+ *   the same row lock. Capped shards only spend uses already allotted to them out of the
+ *   coupon's remaining budget.
+ *
+ * The increment runs in the caller's transaction, so a failed checkout gives the use back.
+ * {@link #reconcile} folds the shard counts into the coupon and re-allots what is left; it
+ * is run by CouponShardReconciler.
+ */
+@Service
+@Slf4j
+public class CouponRedemptionService {
+
+    public static final String CACHE_REGION = "coupons";
+
+    /**
+     * The immutable part of a coupon, as cached per code. discount is the coupon's discount in
+     * fixed scale 2 (see {@link Money}): cents, or hundredths of a percent for a percentage
+     * coupon. shards is the number of shard rows present when the terms were loaded; 0 means
+     * redemptions go to the coupon row.
+     */
+    public record CouponTerms(Long id, String code, long discount, boolean percentage,
+                              Integer maxUses, LocalDateTime expiresAt, int shards) {
+    }
+
+    private final CouponRepository couponRepository;
+    private final CouponShardRepository couponShardRepository;
+    private final CacheManager cacheManager;
+    private final int shardCount;
+    private final int shardingThreshold;
+
+    public CouponRedemptionService(CouponRepository couponRepository,
+                                   CouponShardRepository couponShardRepository,
+                                   CacheManager cacheManager,
+                                   @Value("${buggyshop.coupons.shards:16}") int shardCount,
+                                   @Value("${buggyshop.coupons.sharding-threshold:1000}") int shardingThreshold) {
+        this.couponRepository = couponRepository;
+        this.couponShardRepository = couponShardRepository;
+        this.cacheManager = cacheManager;
+        this.shardCount = Math.max(1, shardCount);
+        this.shardingThreshold = shardingThreshold;
+    }
+
+    /**
+     * Counts one use of the coupon and returns its terms.
+     *
+     * @throws ResourceNotFoundException if there is no coupon with this code
+     * @throws IllegalArgumentException  if it has expired or reached its maximum usage
+     */
+    @Transactional
+    public CouponTerms redeem(String code) {
+        CouponTerms terms = getTerms(code);
+        LocalDateTime now = LocalDateTime.now();
+
+        if (terms.expiresAt() != null && !terms.expiresAt().isAfter(now)) {
+            throw new IllegalArgumentException("Coupon has expired");
+        }
+
+        if (terms.shards() > 0 && redeemOnShard(terms.id(), terms.shards())) {
+            return terms;
+        }
+
+        // Not sharded, or every shard spent its allotment: whatever is left sits on the coupon row
+        if (couponRepository.redeem(terms.id(), now) == 1) {
+            return terms;
+        }
+
+        // Terms cached before the coupon got its shards; its budget may be allotted to them by now
+        if (terms.shards() == 0 && isSharded(terms.maxUses()) && redeemOnShard(terms.id(), shardCount)) {
+            return terms;
+        }
+        throw new IllegalArgumentException("Coupon has reached maximum usage limit");
+    }
+
+    /**
+     * Terms by code from the cache region, loading them on a miss. Unknown codes are not
+     * cached.
+     */
+    public CouponTerms getTerms(String code) {
+        Cache cache = cacheManager.getCache(CACHE_REGION);
+        CouponTerms terms = cache != null ? cache.get(code, CouponTerms.class) : null;
+        if (terms != null) {
+            return terms;
+        }
+
+        Coupon coupon = couponRepository.findByCode(code)
+                .orElseThrow(() -> new ResourceNotFoundException("Coupon not found"));
+        terms = new CouponTerms(coupon.getId(), coupon.getCode(), Money.toCents(coupon.getDiscount()),
+                Boolean.TRUE.equals(coupon.getIsPercentage()), coupon.getMaxUses(), coupon.getExpiresAt(),
+                (int) couponShardRepository.countByCouponId(coupon.getId()));
+
+        if (cache != null) {
+            cache.put(code, terms);
+        }
+        return terms;
+    }
+
+    public List<Long> findShardedCouponIds() {
+        return couponRepository.findShardedIds(shardingThreshold);
+    }
+
+    /**
+     * Folds the shard counts of one coupon into its usedCount and splits the remaining uses
+     * evenly over its shards again, creating the shards on first run. Coupon and shard rows
+     * are locked for the duration, so no redemption can slip in between.
+     */
+    @Transactional
+    public void reconcile(Long couponId) {
+        Coupon coupon = couponRepository.findByIdWithLock(couponId).orElse(null);
+        if (coupon == null) {
+            return;
+        }
+        List<CouponShard> shards = new ArrayList<>(couponShardRepository.findByCouponIdWithLock(couponId));
+        boolean created = shards.size() < shardCount;
+        for (int shard = shards.size(); shard < shardCount; shard++) {
+            shards.add(CouponShard.builder().couponId(couponId).shard(shard).build());
+        }
+
+        int usedCount = coupon.getUsedCount() == null ? 0 : coupon.getUsedCount();
+        int folded = 0;
+        for (CouponShard shard : shards) {
+            folded += shard.getUsed();
+            if (shard.getAllotment() != null) {
+                // Allotted uses were counted up front; give back the ones not spent
+                usedCount -= shard.getAllotment() - shard.getUsed();
+            } else {
+                usedCount += shard.getUsed();
+            }
+            shard.setUsed(0);
+        }
+
+        if (coupon.getMaxUses() == null) {
+            shards.forEach(shard -> shard.setAllotment(null));
+        } else {
+            int remaining = Math.max(0, coupon.getMaxUses() - usedCount);
+            for (int i = 0; i < shards.size(); i++) {
+                shards.get(i).setAllotment(remaining / shards.size() + (i < remaining % shards.size() ? 1 : 0));
+            }
+            usedCount += remaining;
+        }
+
+        coupon.setUsedCount(usedCount);
+        couponRepository.save(coupon);
+        couponShardRepository.saveAll(shards);
+
+        if (created) {
+            // Cached terms still say "not sharded"
+            Cache cache = cacheManager.getCache(CACHE_REGION);
+            if (cache != null) {
+                cache.evict(coupon.getCode());
+            }
+            log.info("Spread redemptions of coupon {} over {} shards", coupon.getCode(), shards.size());
+        } else if (folded > 0) {
+            log.debug("Folded {} shard redemptions into coupon {}", folded, coupon.getCode());
+        }
+    }
+
+    private boolean isSharded(Integer maxUses) {
+        return maxUses == null || maxUses >= shardingThreshold;
+    }
+
+    private boolean redeemOnShard(Long couponId, int shards) {
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (couponShardRepository.redeem(couponId, (start + i) % shards) == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
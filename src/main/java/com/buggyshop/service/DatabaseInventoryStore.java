@@ -0,0 +1,189 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Inventory;
+import com.buggyshop.exception.InsufficientInventoryException;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * DB-per-call inventory store: each operation loads the inventory row and saves it back.
+ *
+ * The *All variants handle a whole order at once: they lock every affected row with one
+ * SELECT ... FOR UPDATE in product-id order (so overlapping carts always lock in the same
+ * order), validate, and apply all changes with a single set-based UPDATE. Plain IN lists and
+ * CASE keep the SQL portable to the embedded databases used outside production.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseInventoryStore implements InventoryStore {
+
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Inventory getInventory(Long productId) {
+        return inventoryRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+    }
+
+    @Override
+    @Transactional
+    public void reserveStock(Long productId, Integer quantity) {
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+
+        if (inventory.getAvailable() < quantity) {
+            throw new InsufficientInventoryException(
+                    String.format("Insufficient stock. Available: %d, Requested: %d",
+                            inventory.getAvailable(), quantity));
+        }
+
+        inventory.setReserved(inventory.getReserved() + quantity);
+        inventoryRepository.save(inventory);
+
+        log.info("Reserved {} units. New available: {}", quantity, inventory.getAvailable());
+    }
+
+    @Override
+    @Transactional
+    public void restockProduct(Long productId, Integer quantity) {
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+
+        inventory.setQuantity(inventory.getQuantity() + quantity);
+        inventory.setUpdatedAt(LocalDateTime.now());
+
+        inventoryRepository.save(inventory);
+
+        log.info("Restocked. New quantity: {}", inventory.getQuantity());
+    }
+
+    @Override
+    @Transactional
+    public void confirmReservation(Long productId, Integer quantity) {
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+
+        inventory.setQuantity(inventory.getQuantity() - quantity);
+        inventory.setReserved(inventory.getReserved() - quantity);
+
+        inventoryRepository.save(inventory);
+    }
+
+    @Override
+    @Transactional
+    public void releaseReservation(Long productId, Integer quantity) {
+        Inventory inventory = inventoryRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+
+        inventory.setReserved(inventory.getReserved() - quantity);
+
+        inventoryRepository.save(inventory);
+    }
+
+    @Override
+    @Transactional
+    public void reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, int[]> rows = lockRows(quantities);
+
+        rows.forEach((productId, row) -> {
+            int available = row[0] - row[1];
+            int requested = quantities.get(productId);
+            if (available < requested) {
+                throw new InsufficientInventoryException(
+                        String.format("Insufficient stock for product %d. Available: %d, Requested: %d",
+                                productId, available, requested), productId);
+            }
+        });
+
+        applyDeltas(quantities, 0, 1);
+        log.info("Reserved stock for {} products in one batch", quantities.size());
+    }
+
+    @Override
+    @Transactional
+    public void restockAll(Map<Long, Integer> quantities) {
+        lockRows(quantities);
+        applyDeltas(quantities, 1, 0);
+    }
+
+    @Override
+    @Transactional
+    public void confirmAll(Map<Long, Integer> quantities) {
+        lockRows(quantities);
+        applyDeltas(quantities, -1, -1);
+    }
+
+    @Override
+    @Transactional
+    public void releaseAll(Map<Long, Integer> quantities) {
+        lockRows(quantities);
+        applyDeltas(quantities, 0, -1);
+    }
+
+    /**
+     * Locks all rows in product-id order and returns productId -> [quantity, reserved].
+     */
+    private Map<Long, int[]> lockRows(Map<Long, Integer> quantities) {
+        List<Long> productIds = new ArrayList<>(new TreeMap<>(quantities).keySet());
+        Map<Long, int[]> rows = new TreeMap<>();
+
+        String sql = "SELECT product_id, quantity, reserved FROM inventory WHERE product_id IN (" +
+                placeholders(productIds.size()) + ") ORDER BY product_id FOR UPDATE";
+        jdbcTemplate.query(sql, rs -> {
+            rows.put(rs.getLong("product_id"), new int[]{rs.getInt("quantity"), rs.getInt("reserved")});
+        }, productIds.toArray());
+
+        for (Long productId : productIds) {
+            if (!rows.containsKey(productId)) {
+                throw new ResourceNotFoundException("Inventory not found for product " + productId);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * One UPDATE for all products: quantity/reserved += sign * CASE product_id WHEN ... END.
+     */
+    private void applyDeltas(Map<Long, Integer> quantities, int quantitySign, int reservedSign) {
+        Map<Long, Integer> sorted = new TreeMap<>(quantities);
+        StringBuilder delta = new StringBuilder("CASE product_id");
+        List<Object> args = new ArrayList<>();
+        List<Object> caseArgs = new ArrayList<>();
+
+        sorted.forEach((productId, quantity) -> {
+            delta.append(" WHEN ? THEN ?");
+            caseArgs.add(productId);
+            caseArgs.add(quantity);
+        });
+        delta.append(" ELSE 0 END");
+
+        String sql = "UPDATE inventory SET " +
+                "quantity = quantity + " + quantitySign + " * (" + delta + "), " +
+                "reserved = reserved + " + reservedSign + " * (" + delta + "), " +
+                "version = version + 1, updated_at = CURRENT_TIMESTAMP " +
+                "WHERE product_id IN (" + placeholders(sorted.size()) + ")";
+
+        args.addAll(caseArgs);
+        args.addAll(caseArgs);
+        args.addAll(sorted.keySet());
+        jdbcTemplate.update(sql, args.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,398 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Inventory;
+import com.buggyshop.exception.InsufficientInventoryException;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.InventoryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory inventory engine (buggyshop.inventory.mode=memory).
+ *
+ * Available stock for each product is split across striped atomic counters, so concurrent
+ * reservations on one hot product mostly hit different cache lines instead of serializing
+ * on the inventory row. Reserve/release/confirm/restock are answered in memory; every change
+ * is recorded as a per-product delta, coalesced, and flushed to the inventory table in a
+ * single JDBC batch by a scheduled write-behind job.
+ *
+ * The counters are rebuilt from the inventory table on startup. Products created later are
+ * loaded lazily on first access.
+ */
+@Component
+@Slf4j
+public class InventoryEngine implements InventoryStore {
+
+    private static final String FLUSH_SQL =
+            "UPDATE inventory SET quantity = quantity + ?, reserved = reserved + ?, " +
+            "version = version + 1, updated_at = ? WHERE product_id = ?";
+
+    private static final int MAX_RESERVE_ATTEMPTS = 64;
+
+    private final InventoryRepository inventoryRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int stripes;
+
+    private final Map<Long, StripedStock> stocks = new ConcurrentHashMap<>();
+    private final Map<Long, PendingDelta> pending = new ConcurrentHashMap<>();
+
+    public InventoryEngine(InventoryRepository inventoryRepository,
+                           JdbcTemplate jdbcTemplate,
+                           @Value("${buggyshop.inventory.mode:database}") String mode,
+                           @Value("${buggyshop.inventory.stripes:8}") int stripes) {
+        this.inventoryRepository = inventoryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = "memory".equalsIgnoreCase(mode);
+        this.stripes = Integer.highestOneBit(Math.max(1, stripes));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        List<Inventory> rows = inventoryRepository.findAll();
+        for (Inventory inventory : rows) {
+            stocks.putIfAbsent(inventory.getProductId(), toStock(inventory));
+        }
+
+        log.info("Inventory engine loaded {} products ({} stripes each)", rows.size(), stripes);
+    }
+
+    @Override
+    public Inventory getInventory(Long productId) {
+        StripedStock stock = stock(productId);
+        long available = stock.available();
+        long reserved = stock.reserved.sum();
+
+        return Inventory.builder()
+                .productId(productId)
+                .quantity((int) (available + reserved))
+                .reserved((int) reserved)
+                .build();
+    }
+
+    @Override
+    public void reserveStock(Long productId, Integer quantity) {
+        StripedStock stock = stock(productId);
+
+        if (!stock.tryReserve(quantity)) {
+            throw new InsufficientInventoryException(
+                    String.format("Insufficient stock. Available: %d, Requested: %d",
+                            stock.available(), quantity));
+        }
+
+        reserveRecorded(productId, quantity);
+    }
+
+    @Override
+    public void restockProduct(Long productId, Integer quantity) {
+        StripedStock stock = stock(productId);
+
+        stock.restock(quantity);
+        record(productId, quantity, 0);
+        onRollback(() -> {
+            stock.restock(-quantity);
+            record(productId, -quantity, 0);
+        });
+    }
+
+    @Override
+    public void confirmReservation(Long productId, Integer quantity) {
+        StripedStock stock = stock(productId);
+
+        stock.reserved.add(-quantity);
+        record(productId, -quantity, -quantity);
+        onRollback(() -> {
+            stock.reserved.add(quantity);
+            record(productId, quantity, quantity);
+        });
+    }
+
+    @Override
+    public void releaseReservation(Long productId, Integer quantity) {
+        StripedStock stock = stock(productId);
+
+        stock.release(quantity);
+        record(productId, 0, -quantity);
+        onRollback(() -> {
+            stock.restock(-quantity);
+            stock.reserved.add(quantity);
+            record(productId, 0, quantity);
+        });
+    }
+
+    /**
+     * All-or-nothing: reserves in product-id order and hands back what was already taken
+     * as soon as one product comes up short.
+     */
+    @Override
+    public void reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+
+        try {
+            new TreeMap<>(quantities).forEach((productId, quantity) -> {
+                StripedStock stock = stock(productId);
+                if (!stock.tryReserve(quantity)) {
+                    throw new InsufficientInventoryException(
+                            String.format("Insufficient stock for product %d. Available: %d, Requested: %d",
+                                    productId, stock.available(), quantity), productId);
+                }
+                reserved.put(productId, quantity);
+            });
+        } catch (RuntimeException e) {
+            reserved.forEach((productId, quantity) -> stock(productId).release(quantity));
+            throw e;
+        }
+
+        reserved.forEach(this::reserveRecorded);
+    }
+
+    @Override
+    public void restockAll(Map<Long, Integer> quantities) {
+        quantities.forEach(this::restockProduct);
+    }
+
+    @Override
+    public void confirmAll(Map<Long, Integer> quantities) {
+        quantities.forEach(this::confirmReservation);
+    }
+
+    @Override
+    public void releaseAll(Map<Long, Integer> quantities) {
+        quantities.forEach(this::releaseReservation);
+    }
+
+    /**
+     * Drops the counters of a deleted product along with any unflushed changes, once the
+     * surrounding transaction commits; a rolled-back delete keeps them.
+     */
+    public void evict(Long productId) {
+        afterCommit(() -> {
+            stocks.remove(productId);
+            pending.remove(productId);
+        });
+    }
+
+    /**
+     * Write-behind flush: drains the coalesced deltas and applies them in one JDBC batch.
+     */
+    @Scheduled(fixedDelayString = "${buggyshop.inventory.flush-interval-ms:500}")
+    @Transactional
+    public void flush() {
+        if (!enabled || pending.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        Map<Long, PendingDelta> drained = new HashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        for (Long productId : pending.keySet()) {
+            PendingDelta delta = pending.remove(productId);
+            if (delta == null || delta.isEmpty()) {
+                continue;
+            }
+            drained.put(productId, delta);
+            batch.add(new Object[]{delta.quantity, delta.reserved, now, productId});
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            log.debug("Flushed inventory deltas for {} products", batch.size());
+        } catch (RuntimeException e) {
+            log.error("Inventory flush failed, re-queueing {} deltas: {}", drained.size(), e.getMessage());
+            drained.forEach((productId, delta) -> record(productId, delta.quantity, delta.reserved));
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (enabled && !pending.isEmpty()) {
+            log.info("Flushing {} pending inventory deltas before shutdown", pending.size());
+            flush();
+        }
+    }
+
+    private StripedStock stock(Long productId) {
+        StripedStock stock = stocks.get(productId);
+        if (stock != null) {
+            return stock;
+        }
+
+        return stocks.computeIfAbsent(productId, id -> inventoryRepository.findById(id)
+                .map(this::toStock)
+                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found")));
+    }
+
+    private void reserveRecorded(Long productId, Integer quantity) {
+        record(productId, 0, quantity);
+        onRollback(() -> {
+            stock(productId).release(quantity);
+            record(productId, 0, -quantity);
+        });
+    }
+
+    private StripedStock toStock(Inventory inventory) {
+        return new StripedStock(stripes, inventory.getAvailable(), inventory.getReserved());
+    }
+
+    private void record(Long productId, long quantityDelta, long reservedDelta) {
+        pending.compute(productId, (id, delta) -> {
+            if (delta == null) {
+                delta = new PendingDelta();
+            }
+            delta.quantity += quantityDelta;
+            delta.reserved += reservedDelta;
+            return delta;
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * In-memory changes are not covered by the surrounding JPA transaction, so undo them
+     * explicitly if it rolls back (e.g. createOrder failing after stock was reserved).
+     */
+    private void onRollback(Runnable compensation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    compensation.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Available units spread across a power-of-two number of atomic cells. A reservation
+     * drains cells starting at the caller's home stripe; if the sum is short it puts back
+     * what it took and either retries or reports insufficient stock.
+     */
+    static final class StripedStock {
+        private final AtomicLongArray cells;
+        private final LongAdder reserved = new LongAdder();
+
+        StripedStock(int stripes, long available, long reserved) {
+            this.cells = new AtomicLongArray(stripes);
+            long share = available / stripes;
+            for (int i = 0; i < stripes; i++) {
+                cells.set(i, share);
+            }
+            cells.addAndGet(0, available - share * stripes);
+            this.reserved.add(reserved);
+        }
+
+        long available() {
+            long sum = 0;
+            for (int i = 0; i < cells.length(); i++) {
+                sum += cells.get(i);
+            }
+            return sum;
+        }
+
+        boolean tryReserve(int quantity) {
+            int mask = cells.length() - 1;
+            int home = homeStripe(mask);
+
+            for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+                long remaining = quantity;
+
+                for (int i = 0; i < cells.length() && remaining > 0; i++) {
+                    int idx = (home + i) & mask;
+                    long current;
+                    long take;
+                    do {
+                        current = cells.get(idx);
+                        take = Math.min(current, remaining);
+                    } while (take > 0 && !cells.compareAndSet(idx, current, current - take));
+                    remaining -= Math.max(take, 0);
+                }
+
+                if (remaining == 0) {
+                    reserved.add(quantity);
+                    return true;
+                }
+
+                cells.addAndGet(home, quantity - remaining);
+                if (available() < quantity) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+
+            return false;
+        }
+
+        void release(int quantity) {
+            reserved.add(-quantity);
+            cells.addAndGet(homeStripe(cells.length() - 1), quantity);
+        }
+
+        void restock(int quantity) {
+            cells.addAndGet(homeStripe(cells.length() - 1), quantity);
+        }
+
+        private static int homeStripe(int mask) {
+            return (int) (Thread.currentThread().threadId() & mask);
+        }
+    }
+
+    private static final class PendingDelta {
+        private long quantity;
+        private long reserved;
+
+        boolean isEmpty() {
+            return quantity == 0 && reserved == 0;
+        }
+    }
+}
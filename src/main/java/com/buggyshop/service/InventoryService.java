@@ -1,20 +1,25 @@
 package com.buggyshop.service;
 
+import com.buggyshop.dto.LowStockProduct;
+import com.buggyshop.dto.ProductResponse;
 import com.buggyshop.entity.Inventory;
-import com.buggyshop.entity.Product;
-import com.buggyshop.exception.InsufficientInventoryException;
+import com.buggyshop.event.EntityChangedEvent;
+import com.buggyshop.event.StockChangedEvent;
 import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.instrumentation.LatencyTracked;
 import com.buggyshop.repository.InventoryRepository;
 import com.buggyshop.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,83 +29,167 @@ public class InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final ProductRepository productRepository;
+    private final DatabaseInventoryStore databaseInventoryStore;
+    private final InventoryEngine inventoryEngine;
+    private final LowStockTracker lowStockTracker;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Cacheable(value = "inventory", key = "#productId")
     public Inventory getInventory(Long productId) {
         log.info("Getting inventory for product: {}", productId);
 
-        return inventoryRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+        return loadInventory(productId);
     }
 
-    @Transactional
+    /**
+     * Uncached read from the active store; also used to refresh the inventory cache region.
+     */
+    public Inventory loadInventory(Long productId) {
+        return store().getInventory(productId);
+    }
+
+    @LatencyTracked("inventory.reserve")
     public void reserveStock(Long productId, Integer quantity) {
         log.info("Reserving {} units of product {}", quantity, productId);
 
-        Inventory inventory = inventoryRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+        store().reserveStock(productId, quantity);
+        changed(productId, -quantity);
+    }
 
-        if (inventory.getAvailable() < quantity) {
-            throw new InsufficientInventoryException(
-                    String.format("Insufficient stock. Available: %d, Requested: %d",
-                            inventory.getAvailable(), quantity));
-        }
+    @LatencyTracked("inventory.restock")
+    public void restockProduct(Long productId, Integer quantity) {
+        log.info("Restocking product {} with {} units", productId, quantity);
+
+        store().restockProduct(productId, quantity);
+        changed(productId, quantity);
+    }
 
-        inventory.setReserved(inventory.getReserved() + quantity);
-        inventoryRepository.save(inventory);
+    public void confirmReservation(Long productId, Integer quantity) {
+        log.info("Confirming reservation for product {}: {} units", productId, quantity);
 
-        log.info("Reserved {} units. New available: {}", quantity, inventory.getAvailable());
+        store().confirmReservation(productId, quantity);
+        changed(productId, 0);
     }
 
-    @Transactional
-    @CacheEvict(value = "inventory", key = "#productId")
-    public void restockProduct(Long productId, Integer quantity) {
-        log.info("Restocking product {} with {} units", productId, quantity);
+    public void releaseReservation(Long productId, Integer quantity) {
+        log.info("Releasing reservation for product {}: {} units", productId, quantity);
 
-        Inventory inventory = inventoryRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+        store().releaseReservation(productId, quantity);
+        changed(productId, quantity);
+    }
 
-        inventory.setQuantity(inventory.getQuantity() + quantity);
-        inventory.setUpdatedAt(LocalDateTime.now());
+    /**
+     * Reserves stock for several products at once (productId -> quantity). Either every
+     * product is reserved or, on {@link com.buggyshop.exception.InsufficientInventoryException},
+     * none is.
+     */
+    @LatencyTracked("inventory.reserve")
+    public void reserveAll(Map<Long, Integer> quantities) {
+        log.info("Reserving stock for {} products", quantities.size());
+
+        store().reserveAll(quantities);
+        changed(quantities, -1);
+    }
 
-        inventoryRepository.save(inventory);
+    @LatencyTracked("inventory.restock")
+    public void restockAll(Map<Long, Integer> quantities) {
+        log.info("Restocking {} products", quantities.size());
 
-        log.info("Restocked. New quantity: {}", inventory.getQuantity());
+        store().restockAll(quantities);
+        changed(quantities, 1);
     }
 
-    @Transactional
-    public void confirmReservation(Long productId, Integer quantity) {
-        log.info("Confirming reservation for product {}: {} units", productId, quantity);
+    public void confirmAll(Map<Long, Integer> quantities) {
+        log.info("Confirming reservations for {} products", quantities.size());
 
-        Inventory inventory = inventoryRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+        store().confirmAll(quantities);
+        changed(quantities, 0);
+    }
 
-        inventory.setQuantity(inventory.getQuantity() - quantity);
-        inventory.setReserved(inventory.getReserved() - quantity);
+    public void releaseAll(Map<Long, Integer> quantities) {
+        log.info("Releasing reservations for {} products", quantities.size());
 
-        inventoryRepository.save(inventory);
+        store().releaseAll(quantities);
+        changed(quantities, 1);
     }
 
     @Transactional
-    public void releaseReservation(Long productId, Integer quantity) {
-        log.info("Releasing reservation for product {}: {} units", productId, quantity);
-
-        Inventory inventory = inventoryRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Inventory not found"));
+    public void updateReorderThreshold(Long productId, Integer reorderThreshold) {
+        log.info("Setting reorder threshold of product {} to {}", productId, reorderThreshold);
 
-        inventory.setReserved(inventory.getReserved() - quantity);
+        if (reorderThreshold == null || reorderThreshold < 0) {
+            throw new IllegalArgumentException("Reorder threshold cannot be negative");
+        }
+        if (inventoryRepository.updateReorderThreshold(productId, reorderThreshold) == 0) {
+            throw new ResourceNotFoundException("Inventory not found");
+        }
 
-        inventoryRepository.save(inventory);
+        eventPublisher.publishEvent(EntityChangedEvent.of(Inventory.class, productId));
+        eventPublisher.publishEvent(StockChangedEvent.reorderThreshold(productId, reorderThreshold));
     }
 
-    public List<Product> getLowStockProducts() {
+    /**
+     * Low and out-of-stock products, fewest available first. The set comes from
+     * {@link LowStockTracker}; product details are loaded with one query.
+     */
+    public List<LowStockProduct> getLowStockProducts() {
         log.info("Getting low stock products");
 
-        List<Inventory> lowStock = inventoryRepository.findLowStock();
+        Map<Long, LowStockTracker.Stock> lowStock = lowStockTracker.lowStock();
+        if (lowStock.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductResponse> products = productRepository.findResponsesByIds(lowStock.keySet()).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+
+        return lowStock.entrySet().stream()
+                .filter(entry -> products.containsKey(entry.getKey()))
+                .map(entry -> {
+                    ProductResponse product = products.get(entry.getKey());
+                    LowStockTracker.Stock stock = entry.getValue();
+                    return LowStockProduct.builder()
+                            .productId(product.getId())
+                            .name(product.getName())
+                            .sku(product.getSku())
+                            .price(product.getPrice())
+                            .categoryId(product.getCategoryId())
+                            .categoryName(product.getCategoryName())
+                            .availableStock(stock.available())
+                            .reorderThreshold(stock.reorderThreshold())
+                            .level(stock.level())
+                            .build();
+                })
+                .sorted(Comparator.comparing(LowStockProduct::getAvailableStock)
+                        .thenComparing(LowStockProduct::getProductId))
+                .toList();
+    }
+
+    /**
+     * availableDelta: change in available units (reserve takes, release/restock give back,
+     * confirm leaves availability as it is).
+     */
+    private void changed(Long productId, int availableDelta) {
+        eventPublisher.publishEvent(EntityChangedEvent.of(Inventory.class, productId));
+        if (availableDelta != 0) {
+            eventPublisher.publishEvent(StockChangedEvent.available(productId, availableDelta));
+        }
+    }
+
+    private void changed(Map<Long, Integer> quantities, int availableSign) {
+        eventPublisher.publishEvent(new EntityChangedEvent(Inventory.class, List.copyOf(quantities.keySet())));
+        if (availableSign != 0) {
+            eventPublisher.publishEvent(StockChangedEvent.available(quantities.entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> availableSign * entry.getValue()))));
+        }
+    }
 
-        return lowStock.stream()
-                .map(inv -> productRepository.findById(inv.getProductId()).orElse(null))
-                .filter(p -> p != null)
-                .collect(Collectors.toList());
+    /**
+     * Picks the stock store according to buggyshop.inventory.mode. The memory engine
+     * answers without a DB round trip, so these methods no longer open a transaction
+     * themselves; the database store does that per call.
+     */
+    private InventoryStore store() {
+        return inventoryEngine.isEnabled() ? inventoryEngine : databaseInventoryStore;
     }
 }
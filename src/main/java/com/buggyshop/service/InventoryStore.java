@@ -0,0 +1,36 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Inventory;
+
+import java.util.Map;
+
+/**
+ * Backing store for stock counts used by {@link InventoryService}.
+ *
+ * Two implementations exist, selected with buggyshop.inventory.mode:
+ * - database: every call reads and writes the inventory row ({@link DatabaseInventoryStore})
+ * - memory: counts live in striped in-memory counters with write-behind flush ({@link InventoryEngine})
+ */
+public interface InventoryStore {
+
+    Inventory getInventory(Long productId);
+
+    void reserveStock(Long productId, Integer quantity);
+
+    void restockProduct(Long productId, Integer quantity);
+
+    void confirmReservation(Long productId, Integer quantity);
+
+    void releaseReservation(Long productId, Integer quantity);
+
+    /**
+     * Reserves every product in the map (productId -> quantity) or none of them.
+     */
+    void reserveAll(Map<Long, Integer> quantities);
+
+    void restockAll(Map<Long, Integer> quantities);
+
+    void confirmAll(Map<Long, Integer> quantities);
+
+    void releaseAll(Map<Long, Integer> quantities);
+}
@@ -0,0 +1,214 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.StockLevel;
+import com.buggyshop.entity.Product;
+import com.buggyshop.event.EntityChangedEvent;
+import com.buggyshop.event.StockChangedEvent;
+import com.buggyshop.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the set of products below their reorder threshold up to date without scanning the
+ * inventory table.
+ *
+ * Available stock and threshold are mirrored per product and adjusted by the deltas that
+ * {@link InventoryService} publishes after each committed reserve/release/restock (confirming
+ * a reservation does not change availability). Whenever a product moves between
+ * {@link StockLevel}s the low-stock set is updated and the crossing goes out on the
+ * {@link StockThresholdFeed}.
+ *
+ * The mirror is loaded once at startup. Products it has not seen yet (created or imported
+ * later) are loaded by id when they first show up in an event. A full resync runs every
+ * buggyshop.inventory.low-stock.reconcile-interval-ms to correct drift from writes that
+ * bypass InventoryService; it skips products that changed while it was reading.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LowStockTracker {
+
+    record Stock(int available, int reorderThreshold, long changes) {
+
+        StockLevel level() {
+            return StockLevel.of(available, reorderThreshold);
+        }
+    }
+
+    private final InventoryRepository inventoryRepository;
+    private final InventoryEngine inventoryEngine;
+    private final StockThresholdFeed feed;
+
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+    private final Set<Long> lowStock = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+
+    /**
+     * productId -> current stock for every product that is low or out of stock.
+     */
+    Map<Long, Stock> lowStock() {
+        Map<Long, Stock> result = new HashMap<>();
+        for (Long productId : lowStock) {
+            Stock stock = stocks.get(productId);
+            if (stock != null && stock.level() != StockLevel.IN_STOCK) {
+                result.put(productId, stock);
+            }
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+        loaded = true;
+        log.info("Low-stock tracker loaded: {} products, {} low or out of stock", stocks.size(), lowStock.size());
+    }
+
+    @Scheduled(initialDelayString = "${buggyshop.inventory.low-stock.reconcile-interval-ms:600000}",
+               fixedDelayString = "${buggyshop.inventory.low-stock.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        Map<Long, Long> seen = new HashMap<>();
+        stocks.forEach((productId, stock) -> seen.put(productId, stock.changes()));
+
+        List<Object[]> rows = inventoryRepository.findStockLevels();
+        Set<Long> present = new HashSet<>();
+        AtomicInteger corrected = new AtomicInteger();
+
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            present.add(productId);
+            Stock actual = new Stock(available(productId, row), (Integer) row[2], 0);
+            Long changesSeen = seen.get(productId);
+
+            stocks.compute(productId, (id, current) -> {
+                if (current == null) {
+                    return track(id, null, actual);
+                }
+                if (changesSeen == null || current.changes() != changesSeen) {
+                    // Moved on since the snapshot was taken; the next run catches up
+                    return current;
+                }
+                if (current.available() == actual.available()
+                        && current.reorderThreshold() == actual.reorderThreshold()) {
+                    return current;
+                }
+                corrected.incrementAndGet();
+                return track(id, current, new Stock(actual.available(), actual.reorderThreshold(), current.changes() + 1));
+            });
+        }
+
+        for (Long productId : seen.keySet()) {
+            if (!present.contains(productId)) {
+                forget(productId);
+            }
+        }
+
+        if (corrected.get() > 0) {
+            log.warn("Low-stock reconcile corrected {} products", corrected.get());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        List<Long> unseen = new ArrayList<>();
+
+        event.availableDeltas().forEach((productId, delta) -> {
+            if (!update(productId, stock -> new Stock(stock.available() + delta, stock.reorderThreshold(), stock.changes() + 1))) {
+                unseen.add(productId);
+            }
+        });
+        event.reorderThresholds().forEach((productId, reorderThreshold) -> {
+            if (!update(productId, stock -> new Stock(stock.available(), reorderThreshold, stock.changes() + 1))) {
+                unseen.add(productId);
+            }
+        });
+
+        // A freshly loaded row already includes the change, so no delta is applied on top
+        if (!unseen.isEmpty()) {
+            refresh(unseen);
+        }
+    }
+
+    /**
+     * New products are picked up here; deleted ones are dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.entityType() == Product.class && loaded) {
+            refresh(event.ids());
+        }
+    }
+
+    private void refresh(Collection<Long> productIds) {
+        Set<Long> missing = new HashSet<>(productIds);
+
+        for (Object[] row : inventoryRepository.findStockLevelsByProductIds(productIds)) {
+            Long productId = (Long) row[0];
+            missing.remove(productId);
+            if (stocks.containsKey(productId)) {
+                continue;
+            }
+            Stock stock = new Stock(available(productId, row), (Integer) row[2], 0);
+            stocks.compute(productId, (id, current) -> current != null ? current : track(id, null, stock));
+        }
+
+        missing.forEach(this::forget);
+    }
+
+    private boolean update(Long productId, UnaryOperator<Stock> change) {
+        return stocks.computeIfPresent(productId, (id, current) -> track(id, current, change.apply(current))) != null;
+    }
+
+    /**
+     * Runs inside the map's compute for this product, so crossings of one product are
+     * published in the order they happened.
+     */
+    private Stock track(Long productId, Stock previous, Stock next) {
+        StockLevel level = next.level();
+        StockLevel previousLevel = previous == null ? null : previous.level();
+
+        if (level == StockLevel.IN_STOCK) {
+            lowStock.remove(productId);
+        } else {
+            lowStock.add(productId);
+        }
+
+        boolean crossed = previous == null ? loaded && level != StockLevel.IN_STOCK : level != previousLevel;
+        if (crossed) {
+            feed.publish(productId, previousLevel, level, next.available(), next.reorderThreshold());
+        }
+        return next;
+    }
+
+    private void forget(Long productId) {
+        stocks.remove(productId);
+        lowStock.remove(productId);
+    }
+
+    /**
+     * In memory mode the table lags the engine by the write-behind interval, so availability
+     * comes from the engine instead.
+     */
+    private int available(Long productId, Object[] row) {
+        if (inventoryEngine.isEnabled()) {
+            return inventoryEngine.getInventory(productId).getAvailable();
+        }
+        return ((Number) row[1]).intValue();
+    }
+}
@@ -0,0 +1,70 @@
+package com.buggyshop.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-scale money arithmetic on plain longs holding cents (scale 2, like every money
+ * column in the schema), so the pricing path allocates nothing per line.
+ *
+ * Every operation throws ArithmeticException on long overflow instead of wrapping, and
+ * rounding is HALF_UP (ties away from zero), matching BigDecimal with RoundingMode.HALF_UP.
+ * Convert with {@link #toCents} and {@link #toBigDecimal} only where amounts enter or leave
+ * as BigDecimal: entities and JSON.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private static final long BASIS_POINTS_PER_UNIT = 100 * 100;
+
+    private Money() {
+    }
+
+    /**
+     * The amount in cents, rounded HALF_UP if it has more than two decimals.
+     *
+     * @throws ArithmeticException if it does not fit in a long
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long add(long cents, long otherCents) {
+        return Math.addExact(cents, otherCents);
+    }
+
+    public static long subtract(long cents, long otherCents) {
+        return Math.subtractExact(cents, otherCents);
+    }
+
+    public static long times(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * The given percentage of an amount, rounded HALF_UP to the cent. The percentage is
+     * fixed-scale too: hundredths of a percent (1550 = 15.50 %), as held by
+     * {@link #toCents} of a scale-2 percentage column.
+     */
+    public static long percent(long cents, long basisPoints) {
+        return divideHalfUp(Math.multiplyExact(cents, basisPoints), BASIS_POINTS_PER_UNIT);
+    }
+
+    /**
+     * dividend / divisor (divisor &gt; 0) rounded HALF_UP.
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // |remainder| < divisor, so doubling it cannot overflow for the divisors used here
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += Long.signum(dividend);
+        }
+        return quotient;
+    }
+}
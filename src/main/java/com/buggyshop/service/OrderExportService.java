@@ -0,0 +1,184 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.OrderExportRecord;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Streams orders in a date range straight to an output stream.
+ *
+ * Orders and their lines are read as one flat scalar projection through a server-side cursor
+ * (JDBC fetch size buggyshop.export.fetch-size), so no entities, users or item collections are
+ * materialized. Rows arrive ordered by order id; consecutive rows of one order are folded into
+ * a single record and written out before the next order is read. The persistence context is
+ * cleared every fetch-size rows, so memory stays flat however many orders are exported.
+ */
+@Service
+@Slf4j
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String EXPORT_QUERY =
+            "SELECT o.id, o.user.id, o.status, o.createdAt, o.paidAt, o.total, o.discount, o.finalTotal, " +
+            "oi.product.id, oi.quantity, oi.price, oi.subtotal " +
+            "FROM Order o LEFT JOIN o.items oi " +
+            "WHERE o.createdAt >= :from AND o.createdAt < :to " +
+            "ORDER BY o.id, oi.id";
+
+    private static final String CSV_HEADER =
+            "order_id,user_id,status,created_at,paid_at,total,discount,final_total," +
+            "product_id,quantity,price,subtotal\n";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public OrderExportService(EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              @Value("${buggyshop.export.fetch-size:500}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every order created in [from, to) to the stream and returns the number of orders.
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) throws IOException {
+        log.info("Exporting orders from {} to {} as {}", from, to, format);
+
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator json = null;
+        if (format == Format.NDJSON) {
+            json = objectMapper.getFactory().createGenerator(writer).setRootValueSeparator(null);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        } else {
+            writer.write(CSV_HEADER);
+        }
+
+        long orders = 0;
+        long rows = 0;
+        try (Stream<Object[]> stream = entityManager.createQuery(EXPORT_QUERY, Object[].class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            Long lastOrderId = null;
+            OrderExportRecord record = null;
+            Iterator<Object[]> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                Long orderId = (Long) row[0];
+                boolean newOrder = !orderId.equals(lastOrderId);
+                if (newOrder) {
+                    orders++;
+                    lastOrderId = orderId;
+                }
+
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, row);
+                } else {
+                    if (newOrder) {
+                        if (record != null) {
+                            writeJsonRecord(json, writer, record);
+                        }
+                        record = toRecord(row);
+                    }
+                    if (row[8] != null) {
+                        record.getItems().add(toItem(row));
+                    }
+                }
+
+                if (++rows % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+
+            if (record != null) {
+                writeJsonRecord(json, writer, record);
+            }
+        }
+
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+
+        log.info("Exported {} orders ({} rows)", orders, rows);
+        return orders;
+    }
+
+    private void writeJsonRecord(JsonGenerator json, Writer writer, OrderExportRecord record) throws IOException {
+        json.writeObject(record);
+        json.flush();
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvValue(row[i]));
+        }
+        writer.write('\n');
+    }
+
+    private static String csvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return Objects.toString(value);
+    }
+
+    private static OrderExportRecord toRecord(Object[] row) {
+        return OrderExportRecord.builder()
+                .id((Long) row[0])
+                .userId((Long) row[1])
+                .status(Objects.toString(row[2]))
+                .createdAt((LocalDateTime) row[3])
+                .paidAt((LocalDateTime) row[4])
+                .total((BigDecimal) row[5])
+                .discount((BigDecimal) row[6])
+                .finalTotal((BigDecimal) row[7])
+                .build();
+    }
+
+    private static OrderExportRecord.Item toItem(Object[] row) {
+        return OrderExportRecord.Item.builder()
+                .productId((Long) row[8])
+                .quantity((Integer) row[9])
+                .price((BigDecimal) row[10])
+                .subtotal((BigDecimal) row[11])
+                .build();
+    }
+}
@@ -1,22 +1,31 @@
 package com.buggyshop.service;
 
+import com.buggyshop.dto.OrderDetail;
 import com.buggyshop.dto.OrderRequest;
+import com.buggyshop.dto.OrderSummary;
 import com.buggyshop.entity.*;
 import com.buggyshop.exception.InsufficientInventoryException;
 import com.buggyshop.exception.InvalidStateTransitionException;
 import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.instrumentation.LatencyTracked;
 import com.buggyshop.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -27,17 +36,24 @@ public class OrderService {
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final AddressRepository addressRepository;
-    private final CouponRepository couponRepository;
+    private final CouponRedemptionService couponRedemptionService;
     private final InventoryService inventoryService;
+    private final ReservationExpiryWheel reservationExpiryWheel;
+    private final CartStore cartStore;
+    private final SalesStatsService salesStatsService;
+    private final RevenueRollupService revenueRollupService;
 
     @Transactional
+    @LatencyTracked("order.create")
     public Order createOrder(OrderRequest request) {
         log.info("Creating order for user: {}", request.getUserId());
 
         User user = userRepository.findById(request.getUserId())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        Cart cart = cartRepository.findById(request.getCartId())
+        // Pending write-behind changes must be in the table before the cart is read
+        cartStore.prepareCheckout(request.getCartId());
+        Cart cart = cartRepository.findWithItemsById(request.getCartId())
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
 
         Address shippingAddress = addressRepository.findById(request.getShippingAddressId())
@@ -47,48 +63,51 @@ public class OrderService {
             throw new IllegalArgumentException("Cart is empty");
         }
 
-        for (CartItem item : cart.getItems()) {
-            try {
-                inventoryService.reserveStock(item.getProduct().getId(), item.getQuantity());
-            } catch (InsufficientInventoryException e) {
-                throw new InsufficientInventoryException(
-                        String.format("Product '%s' has insufficient stock", item.getProduct().getName()));
-            }
+        try {
+            inventoryService.reserveAll(quantitiesByProduct(cart.getItems(), CartItem::getProduct, CartItem::getQuantity));
+        } catch (InsufficientInventoryException e) {
+            String productName = cart.getItems().stream()
+                    .map(CartItem::getProduct)
+                    .filter(product -> product.getId().equals(e.getProductId()))
+                    .map(Product::getName)
+                    .findFirst()
+                    .orElse(String.valueOf(e.getProductId()));
+            throw new InsufficientInventoryException(
+                    String.format("Product '%s' has insufficient stock", productName), e.getProductId());
         }
 
-        BigDecimal total = calculateTotal(cart);
-        BigDecimal discount = BigDecimal.ZERO;
-        BigDecimal finalTotal = total;
+        long total = calculateTotal(cart);
+        long discount = 0;
 
         if (request.getCouponCode() != null && !request.getCouponCode().isEmpty()) {
-            Coupon coupon = applyCoupon(request.getCouponCode());
+            CouponRedemptionService.CouponTerms coupon = couponRedemptionService.redeem(request.getCouponCode());
             discount = calculateDiscount(total, coupon);
-            finalTotal = total.subtract(discount);
         }
 
         Order order = Order.builder()
                 .user(user)
-                .total(total)
-                .discount(discount)
-                .finalTotal(finalTotal)
+                .total(Money.toBigDecimal(total))
+                .discount(Money.toBigDecimal(discount))
+                .finalTotal(Money.toBigDecimal(Money.subtract(total, discount)))
                 .status(OrderStatus.PENDING)
                 .shippingAddress(shippingAddress)
                 .items(new ArrayList<>())
                 .build();
 
         for (CartItem cartItem : cart.getItems()) {
+            long price = Money.toCents(cartItem.getProduct().getPrice());
             OrderItem orderItem = OrderItem.builder()
                     .order(order)
                     .product(cartItem.getProduct())
                     .quantity(cartItem.getQuantity())
                     .price(cartItem.getProduct().getPrice())
-                    .subtotal(cartItem.getProduct().getPrice()
-                            .multiply(BigDecimal.valueOf(cartItem.getQuantity())))
+                    .subtotal(Money.toBigDecimal(Money.times(price, cartItem.getQuantity())))
                     .build();
             order.getItems().add(orderItem);
         }
 
         order = orderRepository.save(order);
+        reservationExpiryWheel.schedule(order.getId(), order.getCreatedAt());
 
         cart.getItems().clear();
         cartRepository.save(cart);
@@ -97,9 +116,13 @@ public class OrderService {
         return order;
     }
 
+    /**
+     * Payment phase 1: moves a PENDING order to PAYMENT_PROCESSING in a short transaction.
+     * The gateway call itself happens outside any transaction (see {@link PaymentService}).
+     */
     @Transactional
-    public Order processPayment(Long orderId, String paymentMethod) {
-        log.info("Processing payment for order: {}", orderId);
+    public Order beginPayment(Long orderId, String paymentMethod) {
+        log.info("Processing payment for order: {} (method={})", orderId, paymentMethod);
 
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
@@ -109,20 +132,109 @@ public class OrderService {
                     String.format("Cannot process payment. Order status is: %s", order.getStatus()));
         }
 
-        simulateExternalPaymentGateway();
+        order.setStatus(OrderStatus.PAYMENT_PROCESSING);
+        order.setPaymentStartedAt(LocalDateTime.now());
+        order.setPaymentFailureReason(null);
+
+        return orderRepository.save(order);
+    }
+
+    /**
+     * Payment phase 2 (success): marks the order PAID and turns its reservations into sales.
+     * Also settles an order held for review once its charge is known.
+     */
+    @Transactional
+    public Order completePayment(Long orderId, String paymentId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        if (!isPaymentOpen(order)) {
+            throw new InvalidStateTransitionException(
+                    String.format("Cannot complete payment. Order status is: %s", order.getStatus()));
+        }
 
         order.setStatus(OrderStatus.PAID);
         order.setPaidAt(LocalDateTime.now());
-        order.setPaymentId("PAY-" + UUID.randomUUID().toString());
+        order.setPaymentId(paymentId);
+
+        inventoryService.confirmAll(quantitiesByProduct(order.getItems(), OrderItem::getProduct, OrderItem::getQuantity));
+        salesStatsService.recordSale(order);
+        revenueRollupService.recordStatusChange(order, null);
+
+        log.info("Payment completed for order: {}", orderId);
+        return orderRepository.save(order);
+    }
+
+    /**
+     * Payment phase 2 (failure): puts the order back to PENDING so the payment can be retried.
+     * Stock stays reserved until the reservation TTL (counted from order creation) runs out.
+     * Refused once a gateway charge is recorded: a charged order may only be completed.
+     */
+    @Transactional
+    public Order failPayment(Long orderId, String reason) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        if (!isPaymentOpen(order)) {
+            throw new InvalidStateTransitionException(
+                    String.format("Cannot fail payment. Order status is: %s", order.getStatus()));
+        }
+        if (order.getPaymentId() != null) {
+            throw new InvalidStateTransitionException(
+                    String.format("Cannot fail payment. Order is already charged as %s", order.getPaymentId()));
+        }
+
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentFailureReason(reason);
+
+        // The wheel may have skipped this order while its payment was in flight
+        reservationExpiryWheel.schedule(order.getId(), order.getCreatedAt());
+
+        log.warn("Payment failed for order {}: {}", orderId, reason);
+        return orderRepository.save(order);
+    }
+
+    /**
+     * Keeps the gateway's payment id on an order whose completion failed, so that it is
+     * completed with that same id later instead of being charged again.
+     */
+    @Transactional
+    public Order recordCharge(Long orderId, String paymentId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+
+        if (!isPaymentOpen(order)) {
+            throw new InvalidStateTransitionException(
+                    String.format("Cannot record charge. Order status is: %s", order.getStatus()));
+        }
+
+        order.setPaymentId(paymentId);
+        return orderRepository.save(order);
+    }
+
+    /**
+     * Moves a PAYMENT_PROCESSING order without a recorded charge to PAYMENT_REVIEW: the
+     * gateway may or may not have charged it, so it can neither be completed nor retried.
+     */
+    @Transactional
+    public Order holdPaymentForReview(Long orderId, String reason) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-        for (OrderItem item : order.getItems()) {
-            inventoryService.confirmReservation(item.getProduct().getId(), item.getQuantity());
+        if (order.getStatus() != OrderStatus.PAYMENT_PROCESSING || order.getPaymentId() != null) {
+            throw new InvalidStateTransitionException(
+                    String.format("Cannot hold payment for review. Order status is: %s", order.getStatus()));
         }
 
+        order.setStatus(OrderStatus.PAYMENT_REVIEW);
+        order.setPaymentFailureReason(reason);
+
+        log.error("Payment of order {} held for review: {}", orderId, reason);
         return orderRepository.save(order);
     }
 
     @Transactional
+    @LatencyTracked("order.cancel")
     public Order cancelOrder(Long orderId) {
         log.info("Cancelling order: {}", orderId);
 
@@ -138,21 +250,30 @@ public class OrderService {
             throw new InvalidStateTransitionException("Order is already cancelled");
         }
 
-        for (OrderItem item : order.getItems()) {
-            if (order.getStatus() == OrderStatus.PENDING) {
-                inventoryService.releaseReservation(item.getProduct().getId(), item.getQuantity());
-            } else if (order.getStatus() == OrderStatus.PAID) {
-                inventoryService.restockProduct(item.getProduct().getId(), item.getQuantity());
-            }
+        if (isPaymentOpen(order)) {
+            throw new InvalidStateTransitionException("Cannot cancel order while payment is processing");
+        }
+
+        Map<Long, Integer> quantities = quantitiesByProduct(order.getItems(), OrderItem::getProduct, OrderItem::getQuantity);
+        if (order.getStatus() == OrderStatus.PENDING) {
+            inventoryService.releaseAll(quantities);
+        } else if (order.getStatus() == OrderStatus.PAID) {
+            inventoryService.restockAll(quantities);
         }
+        OrderStatus previous = order.getStatus();
 
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
+        if (SalesStatsService.SOLD_STATUSES.contains(previous)) {
+            salesStatsService.reverseSale(order);
+            revenueRollupService.recordStatusChange(order, previous);
+        }
 
         return orderRepository.save(order);
     }
 
     @Transactional
+    @LatencyTracked("order.refund")
     public Order refundOrder(Long orderId) {
         log.info("Processing refund for order: {}", orderId);
 
@@ -168,81 +289,168 @@ public class OrderService {
             throw new IllegalStateException("Order has already been refunded");
         }
 
+        OrderStatus previous = order.getStatus();
         order.setStatus(OrderStatus.REFUNDED);
         order.setRefundId("REF-" + UUID.randomUUID().toString());
 
-        for (OrderItem item : order.getItems()) {
-            inventoryService.restockProduct(item.getProduct().getId(), item.getQuantity());
-        }
+        inventoryService.restockAll(quantitiesByProduct(order.getItems(), OrderItem::getProduct, OrderItem::getQuantity));
+        salesStatsService.reverseSale(order);
+        revenueRollupService.recordStatusChange(order, previous);
 
         return orderRepository.save(order);
     }
 
-    public Order getOrder(Long orderId, Long userId) {
-        log.info("Getting order: {} for user: {}", orderId, userId);
+    /**
+     * Cancels those of the given orders that are still PENDING and releases their reserved
+     * stock with one batch inventory update. Called by the reservation expiry job for orders
+     * whose TTL has run out; orders paid or cancelled in the meantime are skipped.
+     */
+    @Transactional
+    @LatencyTracked("order.expire")
+    public int expireReservations(Collection<Long> orderIds) {
+        List<Order> orders = orderRepository.findWithItemsByIdInAndStatus(orderIds, OrderStatus.PENDING);
+        if (orders.isEmpty()) {
+            return 0;
+        }
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        Map<Long, Integer> quantities = new TreeMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            quantitiesByProduct(order.getItems(), OrderItem::getProduct, OrderItem::getQuantity)
+                    .forEach((productId, quantity) -> quantities.merge(productId, quantity, Integer::sum));
+            order.setStatus(OrderStatus.CANCELLED);
+            order.setCancelledAt(now);
+        }
 
-        if (!order.getUser().getId().equals(userId)) {
-            throw new SecurityException("Access denied. This order belongs to another user");
+        if (!quantities.isEmpty()) {
+            inventoryService.releaseAll(quantities);
         }
+        orderRepository.saveAll(orders);
 
-        return order;
+        log.info("Expired reservations of {} pending orders", orders.size());
+        return orders.size();
     }
 
-    public List<Order> getUserOrders(Long userId) {
-        log.info("Getting orders for user: {}", userId);
-        return orderRepository.findByUserId(userId);
-    }
+    /**
+     * Order detail from one query over order, address, lines and products. Ownership is
+     * checked against the order's user_id column, so the user is never loaded.
+     */
+    @Transactional(readOnly = true)
+    public OrderDetail getOrder(Long orderId, Long userId) {
+        log.info("Getting order: {} for user: {}", orderId, userId);
 
-    private BigDecimal calculateTotal(Cart cart) {
-        BigDecimal total = BigDecimal.ZERO;
-        for (CartItem item : cart.getItems()) {
-            BigDecimal itemTotal = item.getProduct().getPrice()
-                    .multiply(BigDecimal.valueOf(item.getQuantity()));
-            total = total.add(itemTotal);
+        List<OrderRepository.OrderDetailRow> rows = orderRepository.findDetailRows(orderId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Order not found");
+        }
+
+        OrderRepository.OrderDetailRow header = rows.get(0);
+        if (!header.getUserId().equals(userId)) {
+            throw new SecurityException("Access denied. This order belongs to another user");
         }
-        return total.setScale(2, RoundingMode.HALF_UP);
-    }
 
-    private Coupon applyCoupon(String code) {
-        Coupon coupon = couponRepository.findByCode(code)
-                .orElseThrow(() -> new ResourceNotFoundException("Coupon not found"));
+        OrderDetail detail = OrderDetail.builder()
+                .id(header.getId())
+                .userId(header.getUserId())
+                .status(header.getStatus())
+                .total(header.getTotal())
+                .discount(header.getDiscount())
+                .finalTotal(header.getFinalTotal())
+                .paymentId(header.getPaymentId())
+                .paymentFailureReason(header.getPaymentFailureReason())
+                .refundId(header.getRefundId())
+                .createdAt(header.getCreatedAt())
+                .paidAt(header.getPaidAt())
+                .shippedAt(header.getShippedAt())
+                .deliveredAt(header.getDeliveredAt())
+                .cancelledAt(header.getCancelledAt())
+                .build();
 
-        if (coupon.getExpiresAt() != null && coupon.getExpiresAt().isBefore(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Coupon has expired");
+        if (header.getStreet() != null || header.getCity() != null) {
+            detail.setShippingAddress(OrderDetail.ShippingAddress.builder()
+                    .street(header.getStreet())
+                    .city(header.getCity())
+                    .state(header.getState())
+                    .zipCode(header.getZipCode())
+                    .country(header.getCountry())
+                    .build());
         }
 
-        if (coupon.getMaxUses() != null && coupon.getUsedCount() >= coupon.getMaxUses()) {
-            throw new IllegalArgumentException("Coupon has reached maximum usage limit");
+        for (OrderRepository.OrderDetailRow row : rows) {
+            if (row.getProductId() == null) {
+                continue;
+            }
+            detail.getItems().add(OrderDetail.Item.builder()
+                    .productId(row.getProductId())
+                    .productName(row.getProductName())
+                    .sku(row.getSku())
+                    .quantity(row.getQuantity())
+                    .price(row.getPrice())
+                    .subtotal(row.getSubtotal())
+                    .build());
         }
 
-        coupon.setUsedCount(coupon.getUsedCount() + 1);
-        couponRepository.save(coupon);
+        return detail;
+    }
+
+    /**
+     * A page of the user's orders, newest first.
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> getUserOrders(Long userId, int page, int size) {
+        log.info("Getting orders for user: {} (page={}, size={})", userId, page, size);
+
+        Pageable pageable = PageRequest.of(page, size,
+                Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id")));
+        Page<OrderSummary> orders = orderRepository.findSummariesByUserId(userId, pageable);
 
-        return coupon;
+        // Only an empty result needs the extra lookup to tell "no orders" from "no such user"
+        if (orders.isEmpty() && !userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return orders;
     }
 
-    private BigDecimal calculateDiscount(BigDecimal total, Coupon coupon) {
-        if (Boolean.TRUE.equals(coupon.getIsPercentage())) {
-            return total.multiply(coupon.getDiscount())
-                    .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-        } else {
-            return coupon.getDiscount();
+    /**
+     * A payment has started and not been settled (in flight, or held for review).
+     */
+    private static boolean isPaymentOpen(Order order) {
+        return order.getStatus() == OrderStatus.PAYMENT_PROCESSING || order.getStatus() == OrderStatus.PAYMENT_REVIEW;
+    }
+
+    /**
+     * Sums line quantities per product id, so a product that appears on several lines
+     * is reserved/released once with the combined quantity.
+     */
+    private static <T> Map<Long, Integer> quantitiesByProduct(List<T> items,
+                                                              Function<T, Product> product,
+                                                              Function<T, Integer> quantity) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (T item : items) {
+            quantities.merge(product.apply(item).getId(), quantity.apply(item), Integer::sum);
         }
+        return quantities;
     }
 
-    private void simulateExternalPaymentGateway() {
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Payment processing interrupted");
+    /**
+     * Sum of price * quantity over the cart, in cents.
+     */
+    long calculateTotal(Cart cart) {
+        long total = 0;
+        for (CartItem item : cart.getItems()) {
+            total = Money.add(total, Money.times(Money.toCents(item.getProduct().getPrice()), item.getQuantity()));
         }
+        return total;
+    }
 
-        if (Math.random() < 0.1) {
-            throw new RuntimeException("Payment gateway timeout");
+    /**
+     * The coupon's discount on a total, in cents; percentages round HALF_UP to the cent.
+     */
+    long calculateDiscount(long total, CouponRedemptionService.CouponTerms coupon) {
+        if (coupon.percentage()) {
+            return Money.percent(total, coupon.discount());
+        } else {
+            return coupon.discount();
         }
     }
 }
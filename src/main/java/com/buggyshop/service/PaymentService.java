@@ -0,0 +1,187 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.PaymentStatusResponse;
+import com.buggyshop.entity.Order;
+import com.buggyshop.entity.OrderStatus;
+import com.buggyshop.exception.InvalidStateTransitionException;
+import com.buggyshop.exception.PaymentGatewayTimeoutException;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.instrumentation.LatencyRegistry;
+import com.buggyshop.instrumentation.LatencyTracked;
+import com.buggyshop.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Two-phase payment processing.
+ *
+ * 1. {@link OrderService#beginPayment} moves the order to PAYMENT_PROCESSING (short transaction)
+ * 2. the gateway is called on the payment executor with no transaction and no connection held
+ * 3. {@link OrderService#completePayment} or {@link OrderService#failPayment} records the outcome
+ *    (second short transaction)
+ *
+ * Clients poll {@link #getPaymentStatus} for the result. Phase 1 is timed as "payment.process"
+ * and the gateway call as "payment.gateway".
+ *
+ * A charge the gateway has made is never turned into a retryable failure. If completing the
+ * order fails, its payment id is kept on the still PAYMENT_PROCESSING order and
+ * {@link #recoverPayments} completes it with that same id. Orders left PAYMENT_PROCESSING with
+ * no recorded charge for longer than buggyshop.payment.gateway-timeout may or may not have been
+ * charged, so they are held as PAYMENT_REVIEW (stock stays reserved) rather than failed.
+ */
+@Service
+@Slf4j
+public class PaymentService {
+
+    private static final int RECOVERY_BATCH_SIZE = 500;
+
+    private final OrderService orderService;
+    private final OrderRepository orderRepository;
+    private final TaskExecutor paymentExecutor;
+    private final LatencyRegistry latencyRegistry;
+    private final Duration gatewayTimeout;
+
+    public PaymentService(OrderService orderService,
+                          OrderRepository orderRepository,
+                          @Qualifier("paymentExecutor") TaskExecutor paymentExecutor,
+                          LatencyRegistry latencyRegistry,
+                          @Value("${buggyshop.payment.gateway-timeout:5m}") Duration gatewayTimeout) {
+        this.orderService = orderService;
+        this.orderRepository = orderRepository;
+        this.paymentExecutor = paymentExecutor;
+        this.latencyRegistry = latencyRegistry;
+        this.gatewayTimeout = gatewayTimeout;
+    }
+
+    @LatencyTracked("payment.process")
+    public PaymentStatusResponse processPayment(Long orderId, String paymentMethod) {
+        Order order = orderService.beginPayment(orderId, paymentMethod);
+
+        try {
+            paymentExecutor.execute(() -> chargeAndComplete(orderId));
+        } catch (TaskRejectedException e) {
+            orderService.failPayment(orderId, "Payment queue is full");
+            throw e;
+        }
+
+        return toStatus(order);
+    }
+
+    @Transactional(readOnly = true)
+    public PaymentStatusResponse getPaymentStatus(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        return toStatus(order);
+    }
+
+    private void chargeAndComplete(Long orderId) {
+        String paymentId;
+        long start = System.nanoTime();
+        try {
+            paymentId = simulateExternalPaymentGateway();
+            latencyRegistry.record("payment.gateway", LatencyRegistry.SUCCESS, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            latencyRegistry.record("payment.gateway", LatencyRegistry.outcomeOf(e), System.nanoTime() - start);
+            failPaymentQuietly(orderId, e.getMessage());
+            return;
+        }
+
+        try {
+            orderService.completePayment(orderId, paymentId);
+        } catch (RuntimeException e) {
+            log.error("Could not complete payment {} for order {}, keeping the charge for recovery",
+                    paymentId, orderId, e);
+            try {
+                orderService.recordCharge(orderId, paymentId);
+            } catch (RuntimeException recordFailure) {
+                // Still PAYMENT_PROCESSING without a charge: recovery holds it for review
+                log.error("Could not record charge {} for order {}", paymentId, orderId, recordFailure);
+            }
+        }
+    }
+
+    /**
+     * Runs on the payment executor, so nothing would see an exception; a failure here leaves the
+     * order PAYMENT_PROCESSING for {@link #recoverPayments}.
+     */
+    private void failPaymentQuietly(Long orderId, String reason) {
+        try {
+            orderService.failPayment(orderId, reason);
+        } catch (RuntimeException e) {
+            log.error("Could not fail payment for order {}, left to payment recovery", orderId, e);
+        }
+    }
+
+    /**
+     * Completes charged orders whose completion failed, with the recorded payment id, and holds
+     * for review the ones that have had no outcome for longer than the gateway timeout.
+     */
+    @Scheduled(fixedDelayString = "${buggyshop.payment.recovery-interval-ms:60000}")
+    public void recoverPayments() {
+        int completed = 0;
+        for (Object[] row : orderRepository.findChargedByStatus(
+                OrderStatus.PAYMENT_PROCESSING, PageRequest.of(0, RECOVERY_BATCH_SIZE))) {
+            Long orderId = (Long) row[0];
+            try {
+                orderService.completePayment(orderId, (String) row[1]);
+                completed++;
+            } catch (RuntimeException e) {
+                log.warn("Retrying completion of charged order {} failed, will retry: {}", orderId, e.getMessage());
+            }
+        }
+
+        int held = 0;
+        LocalDateTime cutoff = LocalDateTime.now().minus(gatewayTimeout);
+        for (Long orderId : orderRepository.findUnchargedByStatusStartedBefore(
+                OrderStatus.PAYMENT_PROCESSING, cutoff, PageRequest.of(0, RECOVERY_BATCH_SIZE))) {
+            try {
+                orderService.holdPaymentForReview(orderId, "No payment outcome within " + gatewayTimeout);
+                held++;
+            } catch (InvalidStateTransitionException | OptimisticLockingFailureException e) {
+                // The outcome was recorded after all
+                log.debug("Order {} settled while recovering its payment, skipped", orderId);
+            }
+        }
+
+        if (completed > 0 || held > 0) {
+            log.warn("Payment recovery: {} charged orders completed, {} held for review", completed, held);
+        }
+    }
+
+    private String simulateExternalPaymentGateway() {
+        try {
+            Thread.sleep(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Payment processing interrupted");
+        }
+
+        if (Math.random() < 0.1) {
+            throw new PaymentGatewayTimeoutException("Payment gateway timeout");
+        }
+
+        return "PAY-" + UUID.randomUUID();
+    }
+
+    private PaymentStatusResponse toStatus(Order order) {
+        return PaymentStatusResponse.builder()
+                .orderId(order.getId())
+                .status(order.getStatus())
+                .paymentId(order.getPaymentId())
+                .paidAt(order.getPaidAt())
+                .failureReason(order.getPaymentFailureReason())
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.buggyshop.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Continuation token for keyset pagination of products: the sort field plus the sort value
+ * and id of the last row returned. Clients treat the encoded form as opaque.
+ */
+record ProductCursor(String sortBy, String value, long id) {
+
+    private static final String VERSION = "v1";
+
+    /**
+     * Cursor placed before the first row: every stored key sorts after these values
+     * (names are non-blank, prices positive, ids positive).
+     */
+    static ProductCursor start(String sortBy) {
+        String value = switch (sortBy) {
+            case "name" -> "";
+            case "price" -> "0";
+            case "createdAt" -> LocalDateTime.of(1970, 1, 1, 0, 0).toString();
+            default -> "";
+        };
+        return new ProductCursor(sortBy, value, 0);
+    }
+
+    static ProductCursor decode(String token, String sortBy) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 4);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!parts[1].equals(sortBy)) {
+            throw new IllegalArgumentException(
+                    String.format("Cursor was issued for sortBy=%s, not %s", parts[1], sortBy));
+        }
+
+        try {
+            ProductCursor cursor = new ProductCursor(parts[1], parts[3], Long.parseLong(parts[2]));
+            // Parse the typed value now so a tampered token fails as a bad request
+            cursor.price();
+            cursor.createdAt();
+            return cursor;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = VERSION + "\n" + sortBy + "\n" + id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    BigDecimal price() {
+        return "price".equals(sortBy) ? new BigDecimal(value) : null;
+    }
+
+    LocalDateTime createdAt() {
+        return "createdAt".equals(sortBy) ? LocalDateTime.parse(value) : null;
+    }
+}
@@ -0,0 +1,495 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.ProductImportResult;
+import com.buggyshop.dto.ProductRequest;
+import com.buggyshop.entity.Category;
+import com.buggyshop.entity.Inventory;
+import com.buggyshop.entity.Product;
+import com.buggyshop.event.EntityChangedEvent;
+import com.buggyshop.repository.CategoryRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk product import from a streamed JSON array or CSV file.
+ *
+ * Rows are parsed one at a time, validated against the same constraints as
+ * {@link ProductRequest}, and collected into chunks of buggyshop.import.chunk-size. Each chunk
+ * is written in its own transaction as one JDBC batch of product inserts (ids come back as
+ * generated keys) and one batch of inventory inserts. Categories are loaded once up front,
+ * so rows may name a category by id or by name without a lookup per row.
+ *
+ * Invalid rows are reported and skipped; a chunk the database rejects is reported row by row
+ * and the import carries on with the next chunk.
+ */
+@Service
+@Slf4j
+public class ProductImportService {
+
+    public enum Format { JSON, CSV }
+
+    private static final String INSERT_PRODUCT =
+            "INSERT INTO products (name, description, price, sku, category_id, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private static final String INSERT_INVENTORY =
+            "INSERT INTO inventory (product_id, quantity, reserved, reorder_threshold, version, updated_at) " +
+            "VALUES (?, ?, 0, ?, 0, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader jsonReader;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                CategoryRepository categoryRepository,
+                                ProductSearchIndex searchIndex,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${buggyshop.import.chunk-size:1000}") int chunkSize,
+                                @Value("${buggyshop.import.max-reported-errors:100}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categoryRepository = categoryRepository;
+        this.searchIndex = searchIndex;
+        this.eventPublisher = eventPublisher;
+        this.jsonReader = objectMapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        this.validator = validator;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public ProductImportResult importProducts(InputStream in, Format format) {
+        log.info("Importing products as {}", format);
+
+        long start = System.nanoTime();
+        Categories categories = loadCategories();
+        ImportRun run = new ImportRun();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+
+        try {
+            RowSource source = format == Format.CSV
+                    ? new CsvRows(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))
+                    : new JsonRows(jsonReader, jsonReader.createParser(in));
+
+            RawRow raw;
+            while ((raw = source.next()) != null) {
+                long rowNumber = ++run.rowsRead;
+                Row row = toRow(rowNumber, raw, categories, run);
+                if (row == null) {
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, run, start);
+                }
+            }
+            run.completed = true;
+        } catch (IOException e) {
+            run.reject(run.rowsRead + 1, null, "Malformed input, import stopped: " + e.getMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, run, start);
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        log.info("Product import finished: {} read, {} imported, {} failed in {} ms",
+                run.rowsRead, run.imported, run.failed, elapsedNanos / 1_000_000);
+
+        return ProductImportResult.builder()
+                .format(format.name())
+                .completed(run.completed)
+                .rowsRead(run.rowsRead)
+                .imported(run.imported)
+                .failed(run.failed)
+                .chunks(run.chunks)
+                .elapsedMs(elapsedNanos / 1_000_000)
+                .rowsPerSecond(rowsPerSecond(run.rowsRead, elapsedNanos))
+                .errorsTruncated(run.failed > run.errors.size())
+                .errors(run.errors)
+                .build();
+    }
+
+    private void writeChunk(List<Row> chunk, ImportRun run, long start) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                List<Long> ids = insertProducts(chunk, now);
+                insertInventory(chunk, ids, now);
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    ProductRequest request = chunk.get(i).request;
+                    searchIndex.index(Product.builder()
+                            .id(ids.get(i))
+                            .name(request.getName())
+                            .description(request.getDescription())
+                            .sku(request.getSku())
+                            .build());
+                }
+                // Delivered after commit, e.g. so the low-stock tracker picks up the new rows
+                eventPublisher.publishEvent(new EntityChangedEvent(Product.class, ids));
+            });
+            run.imported += chunk.size();
+        } catch (DataAccessException e) {
+            String message = "Rejected by the database: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Row row : chunk) {
+                run.reject(row.number, row.request.getSku(), message);
+            }
+        }
+
+        run.chunks++;
+        log.info("Product import progress: {} rows read, {} imported, {} failed ({} rows/s)",
+                run.rowsRead, run.imported, run.failed,
+                Math.round(rowsPerSecond(run.rowsRead, System.nanoTime() - start)));
+        chunk.clear();
+    }
+
+    private List<Long> insertProducts(List<Row> chunk, LocalDateTime now) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PRODUCT, new String[]{"id"})) {
+                for (Row row : chunk) {
+                    ProductRequest request = row.request;
+                    statement.setString(1, request.getName());
+                    statement.setString(2, request.getDescription());
+                    statement.setBigDecimal(3, request.getPrice());
+                    statement.setString(4, request.getSku());
+                    statement.setLong(5, request.getCategoryId());
+                    statement.setObject(6, now);
+                    statement.setObject(7, now);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                List<Long> keys = new ArrayList<>(chunk.size());
+                try (ResultSet generated = statement.getGeneratedKeys()) {
+                    while (generated.next()) {
+                        keys.add(generated.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        });
+
+        if (ids == null || ids.size() != chunk.size()) {
+            throw new DataRetrievalFailureException(String.format(
+                    "Expected %d generated product ids, got %d", chunk.size(), ids == null ? 0 : ids.size()));
+        }
+        return ids;
+    }
+
+    private void insertInventory(List<Row> chunk, List<Long> ids, LocalDateTime now) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            Integer initialStock = chunk.get(i).request.getInitialStock();
+            // Same rule as ProductService.createProduct: no inventory row without initial stock
+            if (initialStock != null && initialStock > 0) {
+                Integer reorderThreshold = chunk.get(i).request.getReorderThreshold();
+                rows.add(new Object[]{ids.get(i), initialStock,
+                        Objects.requireNonNullElse(reorderThreshold, Inventory.DEFAULT_REORDER_THRESHOLD), now});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INVENTORY, rows);
+        }
+    }
+
+    private Row toRow(long rowNumber, RawRow raw, Categories categories, ImportRun run) {
+        Map<String, String> fields = raw.fields;
+        String sku = fields.get("sku");
+        if (raw.error != null) {
+            run.reject(rowNumber, sku, raw.error);
+            return null;
+        }
+
+        List<String> problems = new ArrayList<>();
+        ProductRequest request = ProductRequest.builder()
+                .name(fields.get("name"))
+                .description(fields.get("description"))
+                .sku(sku)
+                .price(parse(fields, "price", BigDecimal::new, problems))
+                .initialStock(parse(fields, "initialstock", Integer::valueOf, problems))
+                .reorderThreshold(parse(fields, "reorderthreshold", Integer::valueOf, problems))
+                .build();
+
+        Long categoryId = parse(fields, "categoryid", Long::valueOf, problems);
+        String categoryName = fields.get("category");
+        if (categoryId == null && categoryName != null) {
+            categoryId = categories.idsByName.get(categoryName.toLowerCase(Locale.ROOT));
+            if (categoryId == null) {
+                problems.add("Category not found: '" + categoryName + "'");
+            }
+        } else if (categoryId != null && !categories.ids.contains(categoryId)) {
+            problems.add("Category not found: " + categoryId);
+        }
+        request.setCategoryId(categoryId);
+
+        if (request.getInitialStock() != null && request.getInitialStock() < 0) {
+            problems.add("Initial stock cannot be negative");
+        }
+        if (problems.isEmpty()) {
+            for (ConstraintViolation<ProductRequest> violation : validator.validate(request)) {
+                problems.add(violation.getMessage());
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            run.reject(rowNumber, sku, String.join("; ", problems));
+            return null;
+        }
+        return new Row(rowNumber, request);
+    }
+
+    private static <T> T parse(Map<String, String> fields, String key,
+                               Function<String, T> parser, List<String> problems) {
+        String value = fields.get(key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            problems.add(String.format("Invalid %s: '%s'", key, value));
+            return null;
+        }
+    }
+
+    private Categories loadCategories() {
+        List<Category> all = categoryRepository.findAll();
+        Set<Long> ids = all.stream().map(Category::getId).collect(Collectors.toSet());
+        Map<String, Long> idsByName = new HashMap<>();
+        for (Category category : all) {
+            idsByName.putIfAbsent(category.getName().toLowerCase(Locale.ROOT), category.getId());
+        }
+        return new Categories(ids, idsByName);
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : rows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Field names are matched case-insensitively and without underscores, so "categoryId",
+     * "category_id" and "CATEGORYID" are the same column.
+     */
+    private static String normalizeKey(String key) {
+        return key.trim().toLowerCase(Locale.ROOT).replace("_", "");
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private record Categories(Set<Long> ids, Map<String, Long> idsByName) {
+    }
+
+    private record Row(long number, ProductRequest request) {
+    }
+
+    /**
+     * One input record as normalized field name -> text, or a reason it could not be read.
+     */
+    private record RawRow(Map<String, String> fields, String error) {
+    }
+
+    private interface RowSource {
+        /**
+         * The next record, or null at end of input. IOException means the input cannot be
+         * read any further.
+         */
+        RawRow next() throws IOException;
+    }
+
+    private final class ImportRun {
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+        private boolean completed;
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private long chunks;
+
+        void reject(long row, String sku, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(ProductImportResult.RowError.builder().row(row).sku(sku).message(message).build());
+            }
+        }
+    }
+
+    /**
+     * Elements of a top-level JSON array, read one object at a time.
+     */
+    private static final class JsonRows implements RowSource {
+        private final ObjectReader reader;
+        private final JsonParser parser;
+        private boolean started;
+
+        JsonRows(ObjectReader reader, JsonParser parser) {
+            this.reader = reader;
+            this.parser = parser;
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected a JSON array of products");
+                }
+            }
+
+            JsonToken token = parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new RawRow(Map.of(), "Expected a JSON object");
+            }
+
+            JsonNode node = reader.readTree(parser);
+            Map<String, String> fields = new HashMap<>();
+            node.properties().forEach(field -> {
+                JsonNode value = field.getValue();
+                if (value.isNull()) {
+                    return;
+                }
+                String text = value.isBigDecimal() ? value.decimalValue().toPlainString()
+                        : value.isValueNode() ? value.asText() : value.toString();
+                fields.put(normalizeKey(field.getKey()), emptyToNull(text));
+            });
+            return new RawRow(fields, null);
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row: comma separated, double-quoted fields may contain
+     * commas, line breaks and doubled quotes.
+     */
+    private static final class CsvRows implements RowSource {
+        private final BufferedReader reader;
+        private List<String> header;
+
+        CsvRows(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RawRow next() throws IOException {
+            if (header == null) {
+                List<String> names = readRecord();
+                if (names == null) {
+                    return null;
+                }
+                header = names.stream().map(ProductImportService::normalizeKey).toList();
+            }
+
+            List<String> values;
+            do {
+                values = readRecord();
+                if (values == null) {
+                    return null;
+                }
+            } while (values.size() == 1 && values.get(0).isEmpty());
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < Math.min(header.size(), values.size()); i++) {
+                fields.put(header.get(i), emptyToNull(values.get(i)));
+            }
+            if (values.size() != header.size()) {
+                return new RawRow(fields, String.format(
+                        "Expected %d columns, found %d", header.size(), values.size()));
+            }
+            return new RawRow(fields, null);
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean any = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c != '"') {
+                        field.append((char) c);
+                        continue;
+                    }
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+
+            if (quoted) {
+                throw new IOException("Unterminated quoted field");
+            }
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
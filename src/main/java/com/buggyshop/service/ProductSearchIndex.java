@@ -0,0 +1,409 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Product;
+import com.buggyshop.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, description and SKU.
+ *
+ * Each product gets a dense int doc id; every term maps to a posting list of sorted doc ids
+ * with a parallel array of field weights, so queries work on primitive arrays only. An
+ * updated product is removed and re-added under a new id, which keeps additions an append at
+ * the end of each posting list. Freed ids are reclaimed in bulk: when the id space fills up
+ * and at least half of it is dead, live docs are renumbered densely in their current order,
+ * so posting lists stay sorted and the id space stays within twice the live product count.
+ *
+ * Query syntax: whitespace-separated terms, all of which must match (AND); a trailing '*'
+ * makes a term a prefix ("lap*"). A prefix matches at most {@value #MAX_PREFIX_EXPANSIONS}
+ * terms (in term order); prefixes that hit the cap are reported in
+ * {@link SearchHits#truncatedPrefixes}. Hits are ordered by a weighted tf-idf score.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 5;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MAX_PREFIX_EXPANSIONS = 128;
+
+    private final ProductRepository productRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, Integer> docIdsByProduct = new HashMap<>();
+    private final Map<Integer, String[]> termsByDoc = new HashMap<>();
+    private long[] productIdsByDoc = new long[1024];
+    private int nextDocId;
+
+    /**
+     * @param truncatedPrefixes query prefixes that matched more terms than the expansion cap,
+     *                          so hits from the remaining terms are missing
+     */
+    public record SearchHits(long total, List<Long> productIds, List<String> truncatedPrefixes) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = productRepository.findAllSearchFields();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIdsByProduct.clear();
+            termsByDoc.clear();
+            nextDocId = 0;
+            for (Object[] row : rows) {
+                add((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Product search index built: {} products, {} terms", rows.size(), postings.size());
+    }
+
+    /**
+     * (Re)indexes a product once the surrounding transaction commits.
+     */
+    public void index(Product product) {
+        Long productId = product.getId();
+        String name = product.getName();
+        String description = product.getDescription();
+        String sku = product.getSku();
+
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(productId);
+                add(productId, name, description, sku);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops a product from the index once the surrounding transaction commits.
+     */
+    public void delete(Long productId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public SearchHits search(String query, int offset, int limit) {
+        List<QueryTerm> terms = parseQuery(query);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one letter or digit");
+        }
+
+        lock.readLock().lock();
+        try {
+            int liveDocs = docIdsByProduct.size();
+            List<Matches> perTerm = new ArrayList<>(terms.size());
+            List<String> truncatedPrefixes = new ArrayList<>();
+            for (QueryTerm term : terms) {
+                Matches matches = term.prefix
+                        ? matchPrefix(term.text, liveDocs, truncatedPrefixes)
+                        : matchExact(term.text, liveDocs);
+                if (matches.size == 0) {
+                    return new SearchHits(0, List.of(), truncatedPrefixes);
+                }
+                perTerm.add(matches);
+            }
+
+            perTerm.sort(Comparator.comparingInt(m -> m.size));
+            Matches result = perTerm.get(0);
+            for (int i = 1; i < perTerm.size() && result.size > 0; i++) {
+                result = intersect(result, perTerm.get(i));
+            }
+
+            return new SearchHits(result.size, rank(result, offset, limit), truncatedPrefixes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Long productId, String name, String description, String sku) {
+        if (nextDocId == productIdsByDoc.length) {
+            if ((nextDocId - docIdsByProduct.size()) * 2 >= productIdsByDoc.length) {
+                compact();
+            } else {
+                productIdsByDoc = Arrays.copyOf(productIdsByDoc, productIdsByDoc.length * 2);
+            }
+        }
+        int docId = nextDocId++;
+        productIdsByDoc[docId] = productId;
+        docIdsByProduct.put(productId, docId);
+
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String token : tokenize(name)) {
+            weights.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(description)) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(sku)) {
+            weights.merge(token, SKU_WEIGHT, Integer::sum);
+        }
+        if (sku != null && !sku.isBlank()) {
+            weights.merge(sku.toLowerCase(Locale.ROOT), SKU_WEIGHT, Integer::sum);
+        }
+
+        weights.forEach((term, weight) ->
+                postings.computeIfAbsent(term, t -> new PostingList()).append(docId, weight));
+        termsByDoc.put(docId, weights.keySet().toArray(new String[0]));
+    }
+
+    private void remove(Long productId) {
+        Integer docId = docIdsByProduct.remove(productId);
+        if (docId == null) {
+            return;
+        }
+
+        for (String term : termsByDoc.remove(docId)) {
+            PostingList list = postings.get(term);
+            if (list != null && list.remove(docId) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Renumbers the live docs 0..n-1 in doc id order. The mapping is monotonic, so every
+     * posting list is rewritten in place and stays sorted.
+     */
+    private void compact() {
+        int[] newIds = new int[nextDocId];
+        int live = 0;
+        for (int doc = 0; doc < nextDocId; doc++) {
+            if (termsByDoc.containsKey(doc)) {
+                newIds[doc] = live;
+                productIdsByDoc[live++] = productIdsByDoc[doc];
+            }
+        }
+
+        for (PostingList list : postings.values()) {
+            list.renumber(newIds);
+        }
+        Map<Integer, String[]> renumbered = new HashMap<>();
+        termsByDoc.forEach((doc, terms) -> renumbered.put(newIds[doc], terms));
+        termsByDoc.clear();
+        termsByDoc.putAll(renumbered);
+        docIdsByProduct.replaceAll((productId, doc) -> newIds[doc]);
+
+        log.debug("Product search index compacted: {} doc ids -> {}", nextDocId, live);
+        nextDocId = live;
+    }
+
+    private Matches matchExact(String term, int liveDocs) {
+        PostingList list = postings.get(term);
+        return list == null ? new Matches(0) : Matches.of(list, idf(liveDocs, list.size));
+    }
+
+    private Matches matchPrefix(String prefix, int liveDocs, List<String> truncatedPrefixes) {
+        Matches result = new Matches(0);
+        int expansions = 0;
+        for (PostingList list : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                truncatedPrefixes.add(prefix);
+                break;
+            }
+            result = union(result, Matches.of(list, idf(liveDocs, list.size)));
+        }
+        return result;
+    }
+
+    /**
+     * Orders hits by score (descending), then doc id, by packing both into one long per hit.
+     */
+    private List<Long> rank(Matches matches, int offset, int limit) {
+        long[] keys = new long[matches.size];
+        for (int i = 0; i < matches.size; i++) {
+            long scoreBits = Integer.MAX_VALUE - Float.floatToIntBits(matches.scores[i]);
+            keys[i] = (scoreBits << 32) | matches.docs[i];
+        }
+        Arrays.sort(keys);
+
+        int end = (int) Math.min((long) offset + limit, keys.length);
+        List<Long> productIds = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            productIds.add(productIdsByDoc[(int) keys[i]]);
+        }
+        return productIds;
+    }
+
+    private static float idf(int liveDocs, int docFrequency) {
+        return (float) (1.0 + Math.log((1.0 + liveDocs) / (1.0 + docFrequency)));
+    }
+
+    private static Matches intersect(Matches a, Matches b) {
+        Matches out = new Matches(Math.min(a.size, b.size));
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.docs[i] < b.docs[j]) {
+                i++;
+            } else if (a.docs[i] > b.docs[j]) {
+                j++;
+            } else {
+                out.add(a.docs[i], a.scores[i] + b.scores[j]);
+                i++;
+                j++;
+            }
+        }
+        return out;
+    }
+
+    private static Matches union(Matches a, Matches b) {
+        Matches out = new Matches(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.docs[i] < b.docs[j])) {
+                out.add(a.docs[i], a.scores[i++]);
+            } else if (i == a.size || b.docs[j] < a.docs[i]) {
+                out.add(b.docs[j], b.scores[j++]);
+            } else {
+                out.add(a.docs[i], a.scores[i++] + b.scores[j++]);
+            }
+        }
+        return out;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<QueryTerm> parseQuery(String query) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String raw : query.trim().split("\\s+")) {
+            boolean prefix = raw.endsWith("*");
+            List<String> tokens = tokenize(raw);
+            for (int i = 0; i < tokens.size(); i++) {
+                terms.add(new QueryTerm(tokens.get(i), prefix && i == tokens.size() - 1));
+            }
+        }
+        return terms;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record QueryTerm(String text, boolean prefix) {
+    }
+
+    /**
+     * Sorted doc ids with the summed field weight of the term in each doc.
+     */
+    private static final class PostingList {
+        private int[] docs = new int[4];
+        private int[] weights = new int[4];
+        private int size;
+
+        void append(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        void renumber(int[] newIds) {
+            for (int i = 0; i < size; i++) {
+                docs[i] = newIds[docs[i]];
+            }
+        }
+
+        boolean remove(int doc) {
+            int idx = Arrays.binarySearch(docs, 0, size, doc);
+            if (idx < 0) {
+                return false;
+            }
+            System.arraycopy(docs, idx + 1, docs, idx, size - idx - 1);
+            System.arraycopy(weights, idx + 1, weights, idx, size - idx - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Doc ids (sorted) with their accumulated scores for one query term or a combination.
+     */
+    private static final class Matches {
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        Matches(int capacity) {
+            this.docs = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        static Matches of(PostingList list, float idf) {
+            Matches matches = new Matches(list.size);
+            for (int i = 0; i < list.size; i++) {
+                matches.add(list.docs[i], list.weights[i] * idf);
+            }
+            return matches;
+        }
+
+        void add(int doc, float score) {
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+    }
+}
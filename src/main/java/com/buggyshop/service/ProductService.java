@@ -1,18 +1,24 @@
 package com.buggyshop.service;
 
+import com.buggyshop.dto.ProductCursorPage;
 import com.buggyshop.dto.ProductRequest;
 import com.buggyshop.dto.ProductResponse;
+import com.buggyshop.dto.ProductSearchPage;
 import com.buggyshop.entity.Category;
 import com.buggyshop.entity.Inventory;
 import com.buggyshop.entity.Product;
+import com.buggyshop.entity.ProductRatingStats;
+import com.buggyshop.event.EntityChangedEvent;
 import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.instrumentation.LatencyTracked;
 import com.buggyshop.repository.CategoryRepository;
 import com.buggyshop.repository.InventoryRepository;
+import com.buggyshop.repository.ProductRatingStatsRepository;
 import com.buggyshop.repository.ProductRepository;
-import com.buggyshop.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -20,8 +26,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,7 +42,11 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final InventoryRepository inventoryRepository;
-    private final ReviewRepository reviewRepository;
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final InventoryEngine inventoryEngine;
+    private final ProductSearchIndex searchIndex;
+    private final CategoryService categoryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public ProductResponse createProduct(ProductRequest request) {
@@ -56,29 +71,99 @@ public class ProductService {
                     .productId(product.getId())
                     .quantity(request.getInitialStock())
                     .reserved(0)
+                    .reorderThreshold(Objects.requireNonNullElse(
+                            request.getReorderThreshold(), Inventory.DEFAULT_REORDER_THRESHOLD))
                     .build();
             inventoryRepository.save(inventory);
         }
 
+        searchIndex.index(product);
+        eventPublisher.publishEvent(EntityChangedEvent.of(Product.class, product.getId()));
+
         return mapToResponse(product);
     }
 
     public Page<ProductResponse> getProducts(int page, int size, String sortBy) {
         log.info("Getting products: page={}, size={}, sortBy={}", page, size, sortBy);
 
-        // Validate sort field
-        List<String> validSortFields = List.of("name", "price", "createdAt", "id");
-        if (!validSortFields.contains(sortBy)) {
-            throw new IllegalArgumentException(
-                    String.format("Invalid sort field: '%s'. Allowed fields: %s",
-                            sortBy, String.join(", ", validSortFields)));
-        }
+        validateSortField(sortBy);
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
 
-        Page<Product> products = productRepository.findAll(pageable);
+        return productRepository.findAllResponses(pageable);
+    }
 
-        return products.map(this::mapToResponse);
+    /**
+     * Products filed under the category or, with includeSubcategories, anywhere in its subtree.
+     * The subtree's ids come from the category tree snapshot, so the page is one query with an
+     * IN predicate however deep the hierarchy is.
+     */
+    public Page<ProductResponse> getProductsInCategory(Long categoryId, boolean includeSubcategories,
+                                                       int page, int size, String sortBy) {
+        log.info("Getting products in category {} (subcategories={}): page={}, size={}, sortBy={}",
+                categoryId, includeSubcategories, page, size, sortBy);
+
+        validateSortField(sortBy);
+
+        // Resolving the subtree also rejects unknown category ids
+        List<Long> subtree = categoryService.getSubtreeIds(categoryId);
+        List<Long> categoryIds = includeSubcategories ? subtree : List.of(categoryId);
+
+        // id as tie-breaker keeps pages stable when the sort field has duplicates
+        Sort sort = "id".equals(sortBy) ? Sort.by("id") : Sort.by(sortBy).and(Sort.by("id"));
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return productRepository.findResponsesByCategoryIds(categoryIds, pageable);
+    }
+
+    /**
+     * Keyset pagination: seeks past the (sort value, id) carried by the cursor instead of
+     * skipping OFFSET rows, and fetches one extra row to know whether another page exists
+     * rather than running a count query.
+     */
+    public ProductCursorPage getProductsAfter(String cursorToken, int size, String sortBy) {
+        log.info("Getting products by cursor: size={}, sortBy={}", size, sortBy);
+
+        validateSortField(sortBy);
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+
+        ProductCursor cursor = cursorToken == null || cursorToken.isBlank()
+                ? ProductCursor.start(sortBy)
+                : ProductCursor.decode(cursorToken, sortBy);
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<ProductResponse> rows;
+        List<LocalDateTime> createdAts = null;
+        switch (sortBy) {
+            case "name" -> rows = productRepository.findResponsesAfterName(cursor.value(), cursor.id(), limit);
+            case "price" -> rows = productRepository.findResponsesAfterPrice(cursor.price(), cursor.id(), limit);
+            case "createdAt" -> {
+                List<Object[]> result =
+                        productRepository.findResponsesAfterCreatedAt(cursor.createdAt(), cursor.id(), limit);
+                rows = result.stream().map(row -> (ProductResponse) row[0]).toList();
+                createdAts = result.stream().map(row -> (LocalDateTime) row[1]).toList();
+            }
+            default -> rows = productRepository.findResponsesAfterId(cursor.id(), limit);
+        }
+
+        if (rows.size() <= size) {
+            return ProductCursorPage.builder().items(rows).build();
+        }
+
+        List<ProductResponse> items = rows.subList(0, size);
+        ProductResponse last = items.get(size - 1);
+        String lastValue = switch (sortBy) {
+            case "name" -> last.getName();
+            case "price" -> last.getPrice().toPlainString();
+            case "createdAt" -> createdAts.get(size - 1).toString();
+            default -> "";
+        };
+
+        return ProductCursorPage.builder()
+                .items(items)
+                .nextCursor(new ProductCursor(sortBy, lastValue, last.getId()).encode())
+                .build();
     }
 
     @Transactional
@@ -98,6 +183,8 @@ public class ProductService {
         product.setCategory(category);
 
         product = productRepository.save(product);
+        searchIndex.index(product);
+        eventPublisher.publishEvent(EntityChangedEvent.of(Product.class, id));
 
         return mapToResponse(product);
     }
@@ -110,16 +197,41 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
 
         productRepository.delete(product);
+        inventoryEngine.evict(id);
+        searchIndex.delete(id);
+        eventPublisher.publishEvent(EntityChangedEvent.of(Product.class, id));
+    }
+
+    /**
+     * Full-text search over name, description and SKU. Ids come ranked from the in-memory
+     * index; only the requested page is loaded, with one query, and put back in rank order.
+     */
+    public ProductSearchPage searchProducts(String query, int page, int size) {
+        log.info("Searching products: q='{}', page={}, size={}", query, page, size);
+
+        Pageable pageable = PageRequest.of(page, size);
+        ProductSearchIndex.SearchHits hits = searchIndex.search(query, (int) pageable.getOffset(), size);
+        if (hits.productIds().isEmpty()) {
+            return new ProductSearchPage(List.of(), pageable, hits.total(), hits.truncatedPrefixes());
+        }
+
+        Map<Long, ProductResponse> byId = productRepository.findResponsesByIds(hits.productIds()).stream()
+                .collect(Collectors.toMap(ProductResponse::getId, Function.identity()));
+
+        List<ProductResponse> ranked = hits.productIds().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new ProductSearchPage(ranked, pageable, hits.total(), hits.truncatedPrefixes());
     }
 
     @Cacheable(value = "products", key = "#id")
+    @LatencyTracked("product.get")
     public ProductResponse getProduct(Long id) {
         log.info("Getting product from cache: {}", id);
 
-        Product product = productRepository.findById(id)
+        return productRepository.findResponseById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
-
-        return mapToResponse(product);
     }
 
     public void addToBundle(Long productId, Long bundledProductId) {
@@ -144,16 +256,27 @@ public class ProductService {
         product.getBundledProducts().add(bundledProduct);
 
         productRepository.save(product);
+        eventPublisher.publishEvent(EntityChangedEvent.of(Product.class, productId));
+    }
+
+    private static void validateSortField(String sortBy) {
+        List<String> validSortFields = List.of("name", "price", "createdAt", "id");
+        if (!validSortFields.contains(sortBy)) {
+            throw new IllegalArgumentException(
+                    String.format("Invalid sort field: '%s'. Allowed fields: %s",
+                            sortBy, String.join(", ", validSortFields)));
+        }
     }
 
-    private ProductResponse mapToResponse(Product product) {
+    ProductResponse mapToResponse(Product product) {
         Integer availableStock = null;
         if (product.getInventory() != null) {
             availableStock = product.getInventory().getAvailable();
         }
 
-        Double avgRating = reviewRepository.getAverageRating(product.getId());
-        Integer reviewCount = product.getReviews() != null ? product.getReviews().size() : 0;
+        ProductRatingStats stats = ratingStatsRepository.findById(product.getId()).orElse(null);
+        Double avgRating = stats != null ? stats.getAverageRating() : null;
+        Integer reviewCount = stats != null ? (int) stats.getReviewCount() : 0;
 
         return ProductResponse.builder()
                 .id(product.getId())
@@ -0,0 +1,157 @@
+package com.buggyshop.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timer wheel of stock reservation deadlines for PENDING orders.
+ *
+ * Time is cut into ticks of buggyshop.reservations.tick-ms; a deadline lands in slot
+ * (tick mod wheel-size) together with its absolute tick, so deadlines further out than one
+ * rotation simply share the slot and are skipped until their round comes up. Scheduling is
+ * O(1) and advancing only touches the slots whose time has passed, however many orders are
+ * pending. Each slot stores ids and deadlines in two growable long arrays (16 bytes per
+ * order) under its own lock.
+ *
+ * Entries are never removed when an order is paid or cancelled: whoever consumes a due
+ * order id must check that the order is still PENDING. Scheduling the same order twice is
+ * harmless for the same reason.
+ */
+@Component
+@Slf4j
+public class ReservationExpiryWheel {
+
+    private static final int INITIAL_SLOT_CAPACITY = 8;
+
+    private final Duration ttl;
+    private final long tickMillis;
+    private final Slot[] slots;
+    private final int mask;
+    private final long startMillis;
+
+    /**
+     * Last tick whose slot has been drained. Only advanced while holding that slot's lock,
+     * so schedule() can tell under the same lock whether its target slot was already passed.
+     */
+    private volatile long processedTick;
+
+    public ReservationExpiryWheel(@Value("${buggyshop.reservations.ttl:30m}") Duration ttl,
+                                  @Value("${buggyshop.reservations.tick-ms:1000}") long tickMillis,
+                                  @Value("${buggyshop.reservations.wheel-size:4096}") int wheelSize) {
+        this.ttl = ttl;
+        this.tickMillis = Math.max(1, tickMillis);
+        int size = Integer.highestOneBit(Math.max(2, wheelSize));
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.startMillis = System.currentTimeMillis();
+        this.processedTick = 0;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Schedules expiry of the order's reservation at createdAt + TTL. A deadline that has
+     * already passed fires on the next tick.
+     */
+    public void schedule(long orderId, LocalDateTime createdAt) {
+        long deadlineMillis = createdAt.plus(ttl).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long deadlineTick = Math.max(0, Math.floorDiv(deadlineMillis - startMillis + tickMillis - 1, tickMillis));
+
+        while (true) {
+            long tick = Math.max(deadlineTick, processedTick + 1);
+            Slot slot = slots[(int) (tick & mask)];
+            synchronized (slot) {
+                if (tick > processedTick) {
+                    slot.add(orderId, tick);
+                    return;
+                }
+            }
+            // The advancing thread drained that slot in the meantime; aim for a later tick
+        }
+    }
+
+    /**
+     * Drains every slot up to the current time and hands the ids whose deadline has come
+     * to the consumer. Must be called from one thread at a time.
+     */
+    public int advance(LongConsumer due) {
+        long now = (System.currentTimeMillis() - startMillis) / tickMillis;
+        int expired = 0;
+
+        for (long tick = processedTick + 1; tick <= now; tick++) {
+            Slot slot = slots[(int) (tick & mask)];
+            synchronized (slot) {
+                expired += slot.drain(tick, due);
+                processedTick = tick;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Number of scheduled deadlines, including ones for orders that were paid or cancelled since.
+     */
+    public long size() {
+        long size = 0;
+        for (Slot slot : slots) {
+            synchronized (slot) {
+                size += slot.size;
+            }
+        }
+        return size;
+    }
+
+    private static final class Slot {
+        private long[] orderIds = new long[INITIAL_SLOT_CAPACITY];
+        private long[] deadlineTicks = new long[INITIAL_SLOT_CAPACITY];
+        private int size;
+
+        void add(long orderId, long deadlineTick) {
+            if (size == orderIds.length) {
+                orderIds = Arrays.copyOf(orderIds, size * 2);
+                deadlineTicks = Arrays.copyOf(deadlineTicks, size * 2);
+            }
+            orderIds[size] = orderId;
+            deadlineTicks[size] = deadlineTick;
+            size++;
+        }
+
+        /**
+         * Removes and emits entries due at or before tick, compacting the rest in place.
+         */
+        int drain(long tick, LongConsumer due) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (deadlineTicks[i] <= tick) {
+                    due.accept(orderIds[i]);
+                } else {
+                    orderIds[kept] = orderIds[i];
+                    deadlineTicks[kept] = deadlineTicks[i];
+                    kept++;
+                }
+            }
+            int drained = size - kept;
+            size = kept;
+
+            // Give memory back after a burst
+            if (orderIds.length > INITIAL_SLOT_CAPACITY && size < orderIds.length / 4) {
+                int capacity = Math.max(INITIAL_SLOT_CAPACITY, Integer.highestOneBit(Math.max(1, size)) * 2);
+                orderIds = Arrays.copyOf(orderIds, capacity);
+                deadlineTicks = Arrays.copyOf(deadlineTicks, capacity);
+            }
+            return drained;
+        }
+    }
+}
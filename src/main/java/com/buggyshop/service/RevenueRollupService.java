@@ -0,0 +1,313 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.RevenueTotals;
+import com.buggyshop.entity.BucketGranularity;
+import com.buggyshop.entity.Order;
+import com.buggyshop.entity.OrderItem;
+import com.buggyshop.entity.OrderStatus;
+import com.buggyshop.entity.RevenueBucket;
+import com.buggyshop.repository.OrderRepository;
+import com.buggyshop.repository.ProductRepository;
+import com.buggyshop.repository.RevenueBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Maintains {@link RevenueBucket}s and answers time-range revenue queries from them.
+ *
+ * OrderService calls {@link #recordStatusChange} in the transaction that pays, cancels or
+ * refunds an order. A range query is split into whole months, then whole days, then hours
+ * at the edges, so a year costs at most 12 month, ~60 day and ~46 hour bucket groups per
+ * category and status, however many orders it covers.
+ */
+@Service
+@Slf4j
+public class RevenueRollupService {
+
+    /**
+     * Statuses a paid order can be in; only these appear in the buckets.
+     */
+    private static final Set<OrderStatus> TRACKED_STATUSES = trackedStatuses();
+
+    private static final Comparator<RevenueTotals> TOTALS_ORDER = Comparator
+            .comparing(RevenueTotals::getCategoryId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(RevenueTotals::getStatus);
+
+    private final RevenueBucketRepository bucketRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final int maxSeriesBuckets;
+
+    public RevenueRollupService(RevenueBucketRepository bucketRepository,
+                                ProductRepository productRepository,
+                                OrderRepository orderRepository,
+                                @Value("${buggyshop.revenue.max-series-buckets:5000}") int maxSeriesBuckets) {
+        this.bucketRepository = bucketRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.maxSeriesBuckets = maxSeriesBuckets;
+    }
+
+    /**
+     * Moves the order's lines from its previous status (null when it has just been paid)
+     * to its current status, in the hour, day and month buckets of its payment time.
+     * Buckets are updated in (granularity, category, status) order, so concurrent orders
+     * lock shared bucket rows in the same order.
+     */
+    @Transactional
+    public void recordStatusChange(Order order, OrderStatus previous) {
+        Map<Long, Long> categories = new HashMap<>();
+        for (Object[] row : productRepository.findCategoryIds(
+                order.getItems().stream().map(item -> item.getProduct().getId()).toList())) {
+            categories.put((Long) row[0], row[1] == null ? RevenueBucket.UNCATEGORIZED : (Long) row[1]);
+        }
+
+        Map<Long, Totals> byCategory = new TreeMap<>();
+        Totals all = new Totals(1, 0, BigDecimal.ZERO);
+        for (OrderItem item : order.getItems()) {
+            Totals line = new Totals(0, item.getQuantity(), item.getSubtotal());
+            byCategory.merge(categories.get(item.getProduct().getId()), line.plus(Totals.ONE_ORDER), Totals::plusLine);
+            all = all.plus(line);
+        }
+        byCategory.put(RevenueBucket.ALL_CATEGORIES, all);
+
+        Set<OrderStatus> statuses = new TreeSet<>();
+        statuses.add(order.getStatus());
+        if (previous != null) {
+            statuses.add(previous);
+        }
+
+        LocalDateTime time = bucketTime(order.getPaidAt(), order.getCreatedAt());
+        for (BucketGranularity granularity : BucketGranularity.values()) {
+            LocalDateTime bucketStart = granularity.truncate(time);
+            for (Map.Entry<Long, Totals> category : byCategory.entrySet()) {
+                for (OrderStatus status : statuses) {
+                    Totals delta = status == previous ? category.getValue().negate() : category.getValue();
+                    apply(new RevenueBucket.Key(granularity, bucketStart, category.getKey(), status), delta);
+                }
+            }
+        }
+    }
+
+    /**
+     * Totals over [from, to), widened to whole hours, per status. With a categoryId only that
+     * category is counted; with byCategory the totals are split by category.
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueTotals> getTotals(LocalDateTime from, LocalDateTime to, Long categoryId,
+                                         OrderStatus status, boolean byCategory) {
+        checkRange(from, to);
+        from = BucketGranularity.HOUR.truncate(from);
+        to = BucketGranularity.HOUR.ceil(to);
+
+        Map<GroupKey, RevenueTotals> merged = new HashMap<>();
+        for (Range range : cover(from, to)) {
+            for (Object[] row : bucketRepository.sumByCategoryAndStatus(range.granularity(), range.from(), range.to())) {
+                Long rowCategory = (Long) row[0];
+                OrderStatus rowStatus = (OrderStatus) row[1];
+                if ((status != null && rowStatus != status) || !isSelected(rowCategory, categoryId, byCategory)) {
+                    continue;
+                }
+
+                Long category = byCategory || categoryId != null ? rowCategory : null;
+                RevenueTotals totals = merged.computeIfAbsent(new GroupKey(category, rowStatus), key ->
+                        RevenueTotals.builder().categoryId(category).status(rowStatus).revenue(BigDecimal.ZERO).build());
+                totals.setOrderCount(totals.getOrderCount() + ((Number) row[2]).longValue());
+                totals.setUnitsSold(totals.getUnitsSold() + ((Number) row[3]).longValue());
+                totals.setRevenue(totals.getRevenue().add((BigDecimal) row[4]));
+            }
+        }
+
+        List<RevenueTotals> result = new ArrayList<>(merged.values());
+        result.sort(TOTALS_ORDER);
+        return result;
+    }
+
+    /**
+     * One point per bucket of the given granularity in [from, to), widened to whole buckets,
+     * and status. Buckets without sales are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueTotals> getSeries(LocalDateTime from, LocalDateTime to, BucketGranularity granularity,
+                                         Long categoryId, OrderStatus status) {
+        checkRange(from, to);
+        from = granularity.truncate(from);
+        to = granularity.ceil(to);
+
+        int buckets = 0;
+        for (LocalDateTime start = from; start.isBefore(to); start = granularity.next(start)) {
+            if (++buckets > maxSeriesBuckets) {
+                throw new IllegalArgumentException(String.format(
+                        "Range spans more than %d %s buckets; use a coarser granularity", maxSeriesBuckets, granularity));
+            }
+        }
+
+        Long category = categoryId != null ? categoryId : RevenueBucket.ALL_CATEGORIES;
+        return bucketRepository.findSeries(granularity, category, from, to).stream()
+                .filter(bucket -> status == null || bucket.getId().getStatus() == status)
+                .map(bucket -> RevenueTotals.builder()
+                        .bucketStart(bucket.getId().getBucketStart())
+                        .categoryId(categoryId)
+                        .status(bucket.getId().getStatus())
+                        .orderCount(bucket.getOrderCount())
+                        .unitsSold(bucket.getUnitsSold())
+                        .revenue(bucket.getRevenue())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Builds the buckets from the orders table when there are none yet, e.g. for orders
+     * seeded by DataInitializer. Cancelled orders that were never paid are skipped.
+     */
+    @Transactional
+    public int backfillIfEmpty() {
+        if (bucketRepository.count() > 0) {
+            return 0;
+        }
+
+        Map<RevenueBucket.Key, Totals> buckets = new LinkedHashMap<>();
+        Long currentOrder = null;
+        for (Object[] row : orderRepository.aggregateSalesByOrderAndCategory(TRACKED_STATUSES)) {
+            LocalDateTime paidAt = (LocalDateTime) row[1];
+            OrderStatus status = (OrderStatus) row[3];
+            if (status == OrderStatus.CANCELLED && paidAt == null) {
+                continue;
+            }
+
+            boolean newOrder = !row[0].equals(currentOrder);
+            currentOrder = (Long) row[0];
+            Long category = row[4] == null ? RevenueBucket.UNCATEGORIZED : (Long) row[4];
+            Totals line = new Totals(0, ((Number) row[5]).longValue(), (BigDecimal) row[6]);
+
+            LocalDateTime time = bucketTime(paidAt, (LocalDateTime) row[2]);
+            for (BucketGranularity granularity : BucketGranularity.values()) {
+                LocalDateTime bucketStart = granularity.truncate(time);
+                buckets.merge(new RevenueBucket.Key(granularity, bucketStart, category, status),
+                        line.plus(Totals.ONE_ORDER), Totals::plus);
+
+                buckets.merge(new RevenueBucket.Key(granularity, bucketStart, RevenueBucket.ALL_CATEGORIES, status),
+                        newOrder ? line.plus(Totals.ONE_ORDER) : line, Totals::plus);
+            }
+        }
+
+        buckets.forEach(this::apply);
+        log.info("Backfilled {} revenue buckets from the orders table", buckets.size());
+        return buckets.size();
+    }
+
+    private void apply(RevenueBucket.Key key, Totals delta) {
+        if (bucketRepository.applyDelta(key.getGranularity(), key.getBucketStart(), key.getCategoryId(),
+                key.getStatus(), delta.orders(), delta.units(), delta.revenue()) == 0
+                && bucketRepository.insertIfAbsent(key.getGranularity().name(), key.getBucketStart(), key.getCategoryId(),
+                key.getStatus().name(), delta.orders(), delta.units(), delta.revenue()) == 0) {
+            // Another transaction created the bucket in between
+            bucketRepository.applyDelta(key.getGranularity(), key.getBucketStart(), key.getCategoryId(),
+                    key.getStatus(), delta.orders(), delta.units(), delta.revenue());
+        }
+    }
+
+    /**
+     * Splits hour-aligned [from, to) into the fewest buckets: hours up to the first day
+     * boundary, days up to the first month boundary, whole months, then days and hours
+     * again up to to.
+     */
+    static List<Range> cover(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime dayFrom = min(to, BucketGranularity.DAY.ceil(from));
+        LocalDateTime dayTo = max(dayFrom, BucketGranularity.DAY.truncate(to));
+        LocalDateTime monthFrom = min(dayTo, BucketGranularity.MONTH.ceil(dayFrom));
+        LocalDateTime monthTo = max(monthFrom, BucketGranularity.MONTH.truncate(dayTo));
+
+        List<Range> ranges = new ArrayList<>();
+        addRange(ranges, BucketGranularity.HOUR, from, dayFrom);
+        addRange(ranges, BucketGranularity.DAY, dayFrom, monthFrom);
+        addRange(ranges, BucketGranularity.MONTH, monthFrom, monthTo);
+        addRange(ranges, BucketGranularity.DAY, monthTo, dayTo);
+        addRange(ranges, BucketGranularity.HOUR, dayTo, to);
+        return ranges;
+    }
+
+    private static void addRange(List<Range> ranges, BucketGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        if (from.isBefore(to)) {
+            ranges.add(new Range(granularity, from, to));
+        }
+    }
+
+    /**
+     * One category's rows, the per-category rows, or the all-categories rows.
+     */
+    private static boolean isSelected(Long rowCategory, Long categoryId, boolean byCategory) {
+        if (categoryId != null) {
+            return rowCategory.equals(categoryId);
+        }
+        return byCategory != (rowCategory == RevenueBucket.ALL_CATEGORIES);
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+    }
+
+    /**
+     * Orders are bucketed by payment time; orders without one (seeded data) by creation time.
+     */
+    private static LocalDateTime bucketTime(LocalDateTime paidAt, LocalDateTime createdAt) {
+        return paidAt != null ? paidAt : createdAt;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static Set<OrderStatus> trackedStatuses() {
+        Set<OrderStatus> statuses = EnumSet.copyOf(SalesStatsService.SOLD_STATUSES);
+        statuses.add(OrderStatus.CANCELLED);
+        statuses.add(OrderStatus.REFUNDED);
+        return statuses;
+    }
+
+    private record GroupKey(Long categoryId, OrderStatus status) {
+    }
+
+    record Range(BucketGranularity granularity, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private record Totals(long orders, long units, BigDecimal revenue) {
+        static final Totals ONE_ORDER = new Totals(1, 0, BigDecimal.ZERO);
+
+        Totals plus(Totals other) {
+            return new Totals(orders + other.orders, units + other.units, revenue.add(other.revenue));
+        }
+
+        /**
+         * Adds another line of an order already counted once.
+         */
+        Totals plusLine(Totals line) {
+            return new Totals(orders, units + line.units, revenue.add(line.revenue));
+        }
+
+        Totals negate() {
+            return new Totals(-orders, -units, revenue.negate());
+        }
+    }
+}
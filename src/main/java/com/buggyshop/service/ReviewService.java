@@ -0,0 +1,182 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.ReviewRequest;
+import com.buggyshop.dto.ReviewResponse;
+import com.buggyshop.entity.Product;
+import com.buggyshop.entity.ProductRatingStats;
+import com.buggyshop.entity.Review;
+import com.buggyshop.entity.User;
+import com.buggyshop.event.EntityChangedEvent;
+import com.buggyshop.exception.ResourceNotFoundException;
+import com.buggyshop.repository.ProductRatingStatsRepository;
+import com.buggyshop.repository.ProductRepository;
+import com.buggyshop.repository.ReviewRepository;
+import com.buggyshop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Review writes. Every insert/delete updates the product's {@link ProductRatingStats}
+ * in the same transaction, so rating reads never need to touch the reviews table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewService {
+
+    private final ReviewRepository reviewRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ProductRatingStatsRepository ratingStatsRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ReviewResponse createReview(Long productId, ReviewRequest request) {
+        log.info("Creating review for product: {}", productId);
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found"));
+
+        User user = userRepository.findById(request.getUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+
+        Review review = Review.builder()
+                .product(product)
+                .user(user)
+                .rating(request.getRating())
+                .comment(request.getComment())
+                .build();
+
+        review = reviewRepository.save(review);
+        applyRating(productId, review.getRating(), 1);
+
+        return ReviewResponse.builder()
+                .id(review.getId())
+                .productId(productId)
+                .userId(user.getId())
+                .rating(review.getRating())
+                .comment(review.getComment())
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
+
+    @Transactional
+    public void deleteReview(Long reviewId) {
+        log.info("Deleting review: {}", reviewId);
+
+        Review review = reviewRepository.findById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
+
+        Long productId = review.getProduct().getId();
+        reviewRepository.delete(review);
+        applyRating(productId, review.getRating(), -1);
+    }
+
+    /**
+     * Recomputes one product's stats from the reviews table under a row lock. The row is
+     * created first if missing and locked before aggregating, so a review committed in between
+     * is either in the aggregate or applied after this transaction, never lost or counted twice.
+     */
+    @Transactional
+    public void repairRatingStats(Long productId) {
+        ratingStatsRepository.insertIfAbsent(productId);
+        ProductRatingStats stats = ratingStatsRepository.findByProductIdWithLock(productId).orElseThrow();
+
+        List<Object[]> rows = reviewRepository.aggregateRatingsForProduct(productId);
+        Object[] aggregate = rows.isEmpty() ? null : rows.get(0);
+
+        copyAggregate(aggregate, stats);
+        ratingStatsRepository.save(stats);
+        eventPublisher.publishEvent(EntityChangedEvent.of(ProductRatingStats.class, productId));
+    }
+
+    /**
+     * Compares stored stats with a fresh aggregate over the reviews table and returns
+     * the product ids whose stats are missing or out of date.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findDriftedRatingStats() {
+        Map<Long, Object[]> aggregates = new HashMap<>();
+        for (Object[] row : reviewRepository.aggregateRatingsByProduct()) {
+            aggregates.put((Long) row[0], row);
+        }
+
+        List<Long> drifted = new ArrayList<>();
+        Map<Long, ProductRatingStats> stored = new HashMap<>();
+        for (ProductRatingStats stats : ratingStatsRepository.findAll()) {
+            stored.put(stats.getProductId(), stats);
+            if (!matches(stats, aggregates.get(stats.getProductId()))) {
+                drifted.add(stats.getProductId());
+            }
+        }
+
+        for (Long productId : aggregates.keySet()) {
+            if (!stored.containsKey(productId)) {
+                drifted.add(productId);
+            }
+        }
+        return drifted;
+    }
+
+    private void applyRating(Long productId, int rating, int delta) {
+        if (ratingStatsRepository.applyRating(productId, rating, delta) == 0) {
+            // No stats row yet (first review of the product): build it from the reviews table
+            repairRatingStats(productId);
+            return;
+        }
+        ratingStatsRepository.refreshMinMax(productId);
+        eventPublisher.publishEvent(EntityChangedEvent.of(ProductRatingStats.class, productId));
+    }
+
+    private static void copyAggregate(Object[] row, ProductRatingStats stats) {
+        ProductRatingStats fresh = fromAggregate(row);
+        stats.setReviewCount(fresh.getReviewCount());
+        stats.setRatingSum(fresh.getRatingSum());
+        stats.setMinRating(fresh.getMinRating());
+        stats.setMaxRating(fresh.getMaxRating());
+        stats.setStars1(fresh.getStars1());
+        stats.setStars2(fresh.getStars2());
+        stats.setStars3(fresh.getStars3());
+        stats.setStars4(fresh.getStars4());
+        stats.setStars5(fresh.getStars5());
+    }
+
+    private static boolean matches(ProductRatingStats stats, Object[] row) {
+        ProductRatingStats fresh = fromAggregate(row);
+        return stats.getReviewCount() == fresh.getReviewCount()
+                && stats.getRatingSum() == fresh.getRatingSum()
+                && Objects.equals(stats.getMinRating(), fresh.getMinRating())
+                && Objects.equals(stats.getMaxRating(), fresh.getMaxRating())
+                && stats.getStars1() == fresh.getStars1()
+                && stats.getStars2() == fresh.getStars2()
+                && stats.getStars3() == fresh.getStars3()
+                && stats.getStars4() == fresh.getStars4()
+                && stats.getStars5() == fresh.getStars5();
+    }
+
+    private static ProductRatingStats fromAggregate(Object[] row) {
+        if (row == null) {
+            return new ProductRatingStats();
+        }
+        return ProductRatingStats.builder()
+                .reviewCount(((Number) row[1]).longValue())
+                .ratingSum(((Number) row[2]).longValue())
+                .minRating(((Number) row[3]).intValue())
+                .maxRating(((Number) row[4]).intValue())
+                .stars1(((Number) row[5]).longValue())
+                .stars2(((Number) row[6]).longValue())
+                .stars3(((Number) row[7]).longValue())
+                .stars4(((Number) row[8]).longValue())
+                .stars5(((Number) row[9]).longValue())
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.buggyshop.service;
+
+import com.buggyshop.entity.Order;
+import com.buggyshop.entity.OrderItem;
+import com.buggyshop.entity.OrderStatus;
+import com.buggyshop.entity.ProductSalesStats;
+import com.buggyshop.repository.OrderRepository;
+import com.buggyshop.repository.ProductSalesStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps {@link ProductSalesStats} in step with the orders table. OrderService calls
+ * {@link #recordSale} when an order becomes sold and {@link #reverseSale} when a sold
+ * order is cancelled or refunded, inside the same transaction as the status change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesStatsService {
+
+    /**
+     * Statuses whose orders count as sales.
+     */
+    public static final Set<OrderStatus> SOLD_STATUSES =
+            EnumSet.of(OrderStatus.PAID, OrderStatus.PROCESSING, OrderStatus.SHIPPED, OrderStatus.DELIVERED);
+
+    private final ProductSalesStatsRepository salesStatsRepository;
+    private final OrderRepository orderRepository;
+
+    @Transactional
+    public void recordSale(Order order) {
+        applyOrder(order, 1);
+    }
+
+    @Transactional
+    public void reverseSale(Order order) {
+        applyOrder(order, -1);
+    }
+
+    /**
+     * Recomputes one product's stats from the orders table under a row lock. The row is
+     * created first if missing and locked before aggregating, so a sale committed in between
+     * is either in the aggregate or applied after this transaction, never lost or counted twice.
+     */
+    @Transactional
+    public void repairSalesStats(Long productId) {
+        salesStatsRepository.insertIfAbsent(productId);
+        ProductSalesStats stats = salesStatsRepository.findByProductIdWithLock(productId).orElseThrow();
+
+        List<Object[]> rows = orderRepository.aggregateSalesForProduct(productId, SOLD_STATUSES);
+        ProductSalesStats fresh = fromAggregate(rows.isEmpty() ? null : rows.get(0));
+
+        stats.setTimesOrdered(fresh.getTimesOrdered());
+        stats.setUnitsSold(fresh.getUnitsSold());
+        stats.setRevenue(fresh.getRevenue());
+        salesStatsRepository.save(stats);
+    }
+
+    /**
+     * Compares stored stats with a fresh aggregate over orders and order_items and returns
+     * the product ids whose stats are missing or out of date.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findDriftedSalesStats() {
+        Map<Long, Object[]> aggregates = new HashMap<>();
+        for (Object[] row : orderRepository.aggregateSalesByProduct(SOLD_STATUSES)) {
+            aggregates.put((Long) row[0], row);
+        }
+
+        List<Long> drifted = new ArrayList<>();
+        Map<Long, ProductSalesStats> stored = new HashMap<>();
+        for (ProductSalesStats stats : salesStatsRepository.findAll()) {
+            stored.put(stats.getProductId(), stats);
+            if (!matches(stats, aggregates.get(stats.getProductId()))) {
+                drifted.add(stats.getProductId());
+            }
+        }
+
+        for (Long productId : aggregates.keySet()) {
+            if (!stored.containsKey(productId)) {
+                drifted.add(productId);
+            }
+        }
+        return drifted;
+    }
+
+    /**
+     * Rows are updated in product id order, so concurrent orders sharing products lock
+     * their stats rows in the same order.
+     */
+    private void applyOrder(Order order, int sign) {
+        Map<Long, Integer> units = new TreeMap<>();
+        Map<Long, BigDecimal> revenue = new HashMap<>();
+        for (OrderItem item : order.getItems()) {
+            Long productId = item.getProduct().getId();
+            units.merge(productId, item.getQuantity(), Integer::sum);
+            revenue.merge(productId, item.getSubtotal(), BigDecimal::add);
+        }
+
+        units.forEach((productId, quantity) -> {
+            BigDecimal amount = sign < 0 ? revenue.get(productId).negate() : revenue.get(productId);
+            if (salesStatsRepository.applySale(productId, sign, quantity, amount) == 0) {
+                // No stats row yet (first sale of the product): build it from the orders table,
+                // which already holds this order's new status
+                repairSalesStats(productId);
+            }
+        });
+    }
+
+    private static boolean matches(ProductSalesStats stats, Object[] row) {
+        ProductSalesStats fresh = fromAggregate(row);
+        return stats.getTimesOrdered() == fresh.getTimesOrdered()
+                && stats.getUnitsSold() == fresh.getUnitsSold()
+                && stats.getRevenue().compareTo(fresh.getRevenue()) == 0;
+    }
+
+    private static ProductSalesStats fromAggregate(Object[] row) {
+        if (row == null) {
+            return ProductSalesStats.builder().build();
+        }
+        return ProductSalesStats.builder()
+                .timesOrdered(((Number) row[1]).longValue())
+                .unitsSold(((Number) row[2]).longValue())
+                .revenue((BigDecimal) row[3])
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.StockLevel;
+import com.buggyshop.dto.StockThresholdEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Server-sent event feed of stock threshold crossings.
+ *
+ * Events are numbered and the last buggyshop.inventory.low-stock.feed-history of them are kept,
+ * so a client that reconnects with Last-Event-ID is sent what it missed first. Sending happens
+ * on one dispatcher thread: a slow subscriber never holds up the inventory write that caused
+ * the event, and every subscriber sees events in sequence order.
+ */
+@Component
+@Slf4j
+public class StockThresholdFeed {
+
+    private static final String EVENT_NAME = "stock-threshold";
+
+    private final int historySize;
+    private final long subscriberTimeoutMs;
+
+    private final Deque<StockThresholdEvent> history = new ArrayDeque<>();
+    private final List<SseEmitter> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-threshold-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private long sequence;
+
+    public StockThresholdFeed(@Value("${buggyshop.inventory.low-stock.feed-history:1000}") int historySize,
+                              @Value("${buggyshop.inventory.low-stock.feed-timeout-ms:1800000}") long subscriberTimeoutMs) {
+        this.historySize = Math.max(0, historySize);
+        this.subscriberTimeoutMs = subscriberTimeoutMs;
+    }
+
+    synchronized void publish(long productId, StockLevel previousLevel, StockLevel level,
+                              int available, int reorderThreshold) {
+        StockThresholdEvent event = StockThresholdEvent.builder()
+                .sequence(++sequence)
+                .productId(productId)
+                .previousLevel(previousLevel)
+                .level(level)
+                .availableStock(available)
+                .reorderThreshold(reorderThreshold)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        history.addLast(event);
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+
+        log.info("Product {} stock level {} -> {} ({} available, threshold {})",
+                productId, previousLevel, level, available, reorderThreshold);
+        dispatcher.execute(() -> subscribers.forEach(subscriber -> send(subscriber, event)));
+    }
+
+    /**
+     * Opens a subscription; with lastEventId, retained events after it are replayed first.
+     */
+    public synchronized SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(subscriberTimeoutMs);
+        emitter.onCompletion(() -> subscribers.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(emitter));
+
+        List<StockThresholdEvent> missed = lastEventId == null ? List.of() : history.stream()
+                .filter(event -> event.getSequence() > lastEventId)
+                .toList();
+
+        // Queued behind every event published so far, so replay and live events neither
+        // overlap nor leave a gap
+        dispatcher.execute(() -> {
+            try {
+                emitter.send(SseEmitter.event().comment("subscribed"));
+            } catch (IOException | IllegalStateException e) {
+                return;
+            }
+            for (StockThresholdEvent event : missed) {
+                if (!send(emitter, event)) {
+                    return;
+                }
+            }
+            subscribers.add(emitter);
+        });
+
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(SseEmitter::complete);
+    }
+
+    private boolean send(SseEmitter emitter, StockThresholdEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getSequence()))
+                    .name(EVENT_NAME)
+                    .data(event));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping stock threshold subscriber: {}", e.getMessage());
+            subscribers.remove(emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.buggyshop.service;
+
+import com.buggyshop.dto.OrderRequest;
+import com.buggyshop.dto.ProductRequest;
+import com.buggyshop.entity.Cart;
+import com.buggyshop.entity.CartItem;
+import com.buggyshop.entity.Order;
+import com.buggyshop.repository.CartRepository;
+import com.buggyshop.repository.ProductRepository;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JDBC round trips of OrderService.createOrder, counted on the accounting proxy of the OLTP
+ * pool (a batch counts once). Placing an order must cost the same fixed number of round
+ * trips whatever the line count; row-at-a-time writes took 67 for 20 lines.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:checkout-round-trips;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        // SET statement_timeout is PostgreSQL syntax
+        "buggyshop.datasource.oltp.statement-timeout=0",
+        "buggyshop.datasource.analytics.statement-timeout=0",
+        "spring.jpa.show-sql=false",
+        "buggyshop.scheduler.enabled=false",
+        "excepthub.enabled=false"
+})
+class CheckoutRoundTripTest {
+
+    /**
+     * User, cart (with lines and products) and address lookups, inventory lock and update, one
+     * order insert, one batched line insert, one batched cart-line delete, plus the occasional
+     * sequence call.
+     */
+    private static final int MAX_ROUND_TRIPS = 10;
+
+    private static final int LINES = 20;
+    private static final long USER_ID = 1L;
+    private static final long ADDRESS_ID = 1L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    @Qualifier("oltpDataSource")
+    private ProxyDataSource oltpDataSource;
+
+    private final RoundTripCounter roundTrips = new RoundTripCounter();
+
+    @BeforeEach
+    void attachCounter() {
+        oltpDataSource.getProxyConfig().getQueryListener().addListener(roundTrips);
+    }
+
+    @AfterEach
+    void detachCounter() {
+        oltpDataSource.getProxyConfig().getQueryListener().getListeners().remove(roundTrips);
+    }
+
+    @Test
+    void createOrderUsesFixedRoundTripsForTwentyLines() {
+        Long cartId = cartWithLines(LINES);
+
+        roundTrips.start();
+        Order order;
+        try {
+            order = orderService.createOrder(OrderRequest.builder()
+                    .userId(USER_ID)
+                    .cartId(cartId)
+                    .shippingAddressId(ADDRESS_ID)
+                    .build());
+        } finally {
+            roundTrips.stop();
+        }
+
+        assertThat(order.getItems()).hasSize(LINES);
+        assertThat(roundTrips.count)
+                .as("JDBC round trips to place an order of %d lines", LINES)
+                .isLessThanOrEqualTo(MAX_ROUND_TRIPS);
+    }
+
+    private Long cartWithLines(int lines) {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Cart cart = Cart.builder().sessionId(UUID.randomUUID().toString()).build();
+        for (int i = 0; i < lines; i++) {
+            Long productId = productService.createProduct(ProductRequest.builder()
+                    .name("Round trip product " + run + "-" + i)
+                    .price(BigDecimal.valueOf(1999 + i, 2))
+                    .sku("RT-" + run + "-" + i)
+                    .categoryId(1L)
+                    .initialStock(100)
+                    .build()).getId();
+            cart.getItems().add(CartItem.builder()
+                    .cart(cart)
+                    .product(productRepository.getReferenceById(productId))
+                    .quantity(1)
+                    .build());
+        }
+        return cartRepository.save(cart).getId();
+    }
+
+    /**
+     * Counts statement executions on the test thread while started.
+     */
+    private static final class RoundTripCounter implements QueryExecutionListener {
+        private volatile Thread owner;
+        private long count;
+
+        void start() {
+            count = 0;
+            owner = Thread.currentThread();
+        }
+
+        void stop() {
+            owner = null;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            if (owner == Thread.currentThread()) {
+                count++;
+            }
+        }
+    }
+}